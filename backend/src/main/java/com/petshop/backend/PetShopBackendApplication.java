@@ -3,12 +3,14 @@ package com.petshop.backend;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 宠物店后台管理系统主应用类
  */
 @SpringBootApplication
 @MapperScan("com.petshop.backend.mapper")
+@EnableScheduling
 public class PetShopBackendApplication {
 
     public static void main(String[] args) {
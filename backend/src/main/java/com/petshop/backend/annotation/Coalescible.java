@@ -0,0 +1,16 @@
+package com.petshop.backend.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 请求合并注解
+ * 用于标记开销大的只读方法：参数相同的调用并发执行时只实际执行一次，其余调用等待并共享结果（或异常）。
+ * 返回值会被多个调用方共享，调用方不应修改
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalescible {
+}
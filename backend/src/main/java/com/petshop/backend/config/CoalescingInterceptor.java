@@ -0,0 +1,87 @@
+package com.petshop.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 请求合并拦截器（single-flight）
+ * 以 方法 + 规范化的参数 为键，第一个调用实际执行，执行期间到达的相同调用等待它的结果；
+ * 执行结束即移除，不缓存结果。合并次数记录为 request.coalesced{method=类名.方法名}
+ */
+public class CoalescingInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<Method, Counter> counters = new ConcurrentHashMap<>();
+
+    public CoalescingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Key key = new Key(method, normalize(invocation.getArguments()));
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced(method);
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            Object result = invocation.proceed();
+            own.complete(result);
+            return result;
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * 空串视为 null（与 Mapper 中 "!= null and != ''" 的判断一致）
+     */
+    private static List<Object> normalize(Object[] args) {
+        List<Object> normalized = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            normalized.add("".equals(arg) ? null : arg);
+        }
+        return normalized;
+    }
+
+    private void coalesced(Method method) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        counters.computeIfAbsent(method, m -> Counter.builder("request.coalesced")
+                        .tag("method", m.getDeclaringClass().getSimpleName() + "." + m.getName())
+                        .description("合并到进行中相同调用的请求数")
+                        .register(registry))
+                .increment();
+    }
+
+    private record Key(Method method, List<Object> args) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.petshop.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 销售批量提交（group commit）配置类
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sale.group-commit")
+public class SaleGroupCommitConfig {
+
+    /**
+     * 是否启用批量提交
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每批最多合并的销售数
+     */
+    private int maxBatchSize = 16;
+
+    /**
+     * 收到第一笔销售后最多等待的时间（毫秒）
+     */
+    private long lingerMs = 5;
+
+    /**
+     * 调用方等待批次完成的最长时间（毫秒），超时返回 503
+     */
+    private long waitTimeoutMs = 10000;
+}
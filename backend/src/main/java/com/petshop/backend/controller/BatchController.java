@@ -0,0 +1,38 @@
+package com.petshop.backend.controller;
+
+import com.petshop.backend.dto.BatchRequest;
+import com.petshop.backend.dto.BatchResponse;
+import com.petshop.backend.dto.Result;
+import com.petshop.backend.service.BatchService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 批量请求控制器
+ */
+@RestController
+@RequestMapping("/batch")
+@RequiredArgsConstructor
+public class BatchController {
+
+    private final BatchService batchService;
+
+    /**
+     * 在一次请求中调用多个接口（如客户详情页的详情、消费记录、余额历史）
+     * 子请求的权限与单独调用时相同；全部为 GET 时并发执行，否则按顺序执行
+     */
+    @PostMapping
+    public Result<List<BatchResponse>> execute(@Valid @RequestBody BatchRequest batchRequest,
+                                               HttpServletRequest request,
+                                               HttpServletResponse response) {
+        return Result.success(batchService.execute(batchRequest.getRequests(), request, response));
+    }
+}
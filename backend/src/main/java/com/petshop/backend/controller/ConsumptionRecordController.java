@@ -21,6 +21,7 @@ public class ConsumptionRecordController {
 
     /**
      * 获取客户消费记录列表
+     * 传入 cursor 参数（首页传空值）时使用游标分页，否则按 page 分页
      */
     @GetMapping("/customers/{customerId}/consumption-records")
     public Result<PageResult<ConsumptionRecord>> findByCustomerIdAndPage(
@@ -28,7 +29,12 @@ public class ConsumptionRecordController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(consumptionRecordService.findByCustomerIdAndCursor(
+                    customerId, cursor, pageSize, startDate, endDate));
+        }
         PageResult<ConsumptionRecord> result = consumptionRecordService.findByCustomerIdAndPage(
                 customerId, page, pageSize, startDate, endDate);
         return Result.success(result);
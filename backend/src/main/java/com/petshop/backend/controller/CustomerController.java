@@ -2,11 +2,14 @@ package com.petshop.backend.controller;
 
 import com.petshop.backend.dto.BalanceDeductRequest;
 import com.petshop.backend.dto.BalanceRechargeRequest;
+import com.petshop.backend.dto.CustomerSuggestion;
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.Result;
 import com.petshop.backend.entity.BalanceTransaction;
 import com.petshop.backend.entity.Customer;
+import com.petshop.backend.enums.TotalMode;
 import com.petshop.backend.service.CustomerService;
+import com.petshop.backend.service.IdempotencyService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -17,6 +20,8 @@ import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 客户控制器
  */
@@ -26,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * 获取客户列表
@@ -36,11 +42,25 @@ public class CustomerController {
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Boolean isMember,
-            @RequestParam(required = false) Integer memberLevel) {
-        PageResult<Customer> result = customerService.findByPage(page, pageSize, search, isMember, memberLevel);
+            @RequestParam(required = false) Integer memberLevel,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "true") Boolean withTotal,
+            @RequestParam(defaultValue = "false") Boolean approximateTotal) {
+        PageResult<Customer> result = customerService.findByPage(page, pageSize, search, isMember, memberLevel, fields,
+                TotalMode.of(withTotal, approximateTotal));
         return Result.success(result);
     }
 
+    /**
+     * 按手机号前缀联想客户（收银台输入手机号查找会员）
+     */
+    @GetMapping("/suggest")
+    public Result<List<CustomerSuggestion>> suggest(
+            @RequestParam String phone,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return Result.success(customerService.suggestByPhone(phone, limit));
+    }
+
     /**
      * 获取客户详情
      */
@@ -107,38 +127,49 @@ public class CustomerController {
 
     /**
      * 会员充值
+     * 携带 Idempotency-Key 时，重试请求直接返回首次充值结果
      */
     @PostMapping("/{id}/balance/recharge")
     public Result<Customer> recharge(
             @PathVariable Long id,
             @Valid @RequestBody BalanceRechargeRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
         Long operatorId = (Long) httpRequest.getAttribute("userId");
-        Customer customer = customerService.recharge(id, request, operatorId);
+        Customer customer = idempotencyService.execute("POST /customers/" + id + "/balance/recharge",
+                idempotencyKey, Customer.class, () -> customerService.recharge(id, request, operatorId));
         return Result.success("充值成功", customer);
     }
 
     /**
      * 会员余额扣减
+     * 携带 Idempotency-Key 时，重试请求直接返回首次扣减结果
      */
     @PostMapping("/{id}/balance/deduct")
     public Result<Customer> deduct(
             @PathVariable Long id,
             @Valid @RequestBody BalanceDeductRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
         Long operatorId = (Long) httpRequest.getAttribute("userId");
-        Customer customer = customerService.deduct(id, request, operatorId);
+        Customer customer = idempotencyService.execute("POST /customers/" + id + "/balance/deduct",
+                idempotencyKey, Customer.class, () -> customerService.deduct(id, request, operatorId));
         return Result.success("扣减成功", customer);
     }
 
     /**
      * 获取余额变动历史
+     * 传入 cursor 参数（首页传空值）时使用游标分页，否则按 page 分页
      */
     @GetMapping("/{id}/balance/history")
     public Result<PageResult<BalanceTransaction>> getBalanceHistory(
             @PathVariable Long id,
             @RequestParam(defaultValue = "1") Integer page,
-            @RequestParam(defaultValue = "10") Integer pageSize) {
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(customerService.getBalanceHistoryByCursor(id, cursor, pageSize));
+        }
         PageResult<BalanceTransaction> result = customerService.getBalanceHistory(id, page, pageSize);
         return Result.success(result);
     }
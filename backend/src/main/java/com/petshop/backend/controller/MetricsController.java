@@ -0,0 +1,31 @@
+package com.petshop.backend.controller;
+
+import com.petshop.backend.annotation.RequireRole;
+import com.petshop.backend.dto.MetricSnapshot;
+import com.petshop.backend.dto.Result;
+import com.petshop.backend.enums.Role;
+import com.petshop.backend.service.MetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 监控指标控制器（仅管理员可访问）
+ */
+@RestController
+@RequestMapping("/admin/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    /**
+     * 按名称前缀查询监控指标，如 prefix=checkout.lock
+     */
+    @GetMapping
+    @RequireRole(Role.ADMIN)
+    public Result<List<MetricSnapshot>> findMetrics(@RequestParam(required = false) String prefix) {
+        return Result.success(metricsService.findByPrefix(prefix));
+    }
+}
@@ -5,15 +5,25 @@ import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.Result;
 import com.petshop.backend.entity.Product;
 import com.petshop.backend.enums.Role;
+import com.petshop.backend.enums.TotalMode;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.service.ProductSearchService;
 import com.petshop.backend.service.ProductService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 商品控制器
  */
@@ -22,7 +32,13 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class ProductController {
 
+    /**
+     * 可打印 ASCII 字符，首尾空白在保存时去掉
+     */
+    private static final String BARCODE_PATTERN = "^\\s*[!-~]*\\s*$";
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
 
     /**
      * 获取商品列表
@@ -33,8 +49,12 @@ public class ProductController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "true") Boolean withTotal,
+            @RequestParam(defaultValue = "false") Boolean approximateTotal,
             HttpServletRequest request) {
-        PageResult<Product> result = productService.findByPage(page, pageSize, search);
+        PageResult<Product> result = productService.findByPage(page, pageSize, search, fields,
+                TotalMode.of(withTotal, approximateTotal));
 
         // 非管理员用户隐藏进价
         String userRole = (String) request.getAttribute("userRole");
@@ -45,6 +65,42 @@ public class ProductController {
         return Result.success(result);
     }
 
+    /**
+     * 搜索商品（收银台选商品，支持拼音全拼/首字母和错字）
+     */
+    @GetMapping("/search")
+    public Result<List<Product>> search(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") Integer limit,
+            HttpServletRequest request) {
+        List<Product> result = productSearchService.search(keyword, limit);
+
+        // 非管理员用户隐藏进价
+        String userRole = (String) request.getAttribute("userRole");
+        if (userRole != null && !userRole.equals(Role.ADMIN.name())) {
+            result.forEach(product -> product.setPrice(null));
+        }
+
+        return Result.success(result);
+    }
+
+    /**
+     * 按条码查询商品（扫码枪录入）
+     * 非管理员用户隐藏进价信息
+     */
+    @GetMapping("/by-barcode/{code}")
+    public Result<Product> findByBarcode(@PathVariable String code, HttpServletRequest request) {
+        Product product = productSearchService.findByBarcode(code);
+
+        // 非管理员用户隐藏进价
+        String userRole = (String) request.getAttribute("userRole");
+        if (userRole != null && !userRole.equals(Role.ADMIN.name())) {
+            product.setPrice(null);
+        }
+
+        return Result.success(product);
+    }
+
     /**
      * 获取商品详情
      * 非管理员用户隐藏进价信息
@@ -70,6 +126,7 @@ public class ProductController {
     public Result<Product> create(@Valid @RequestBody ProductRequest request) {
         Product product = new Product();
         product.setName(request.name());
+        product.setBarcode(request.barcode());
         product.setPrice(request.price());
         product.setStock(request.stock());
         product.setImageUrl(request.imageUrl());
@@ -87,6 +144,7 @@ public class ProductController {
     public Result<Product> update(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
         Product product = new Product();
         product.setName(request.name());
+        product.setBarcode(request.barcode());
         product.setPrice(request.price());
         product.setStock(request.stock());
         product.setImageUrl(request.imageUrl());
@@ -96,6 +154,24 @@ public class ProductController {
         return Result.success("更新成功", updated);
     }
 
+    /**
+     * 批量设置商品条码（仅管理员可访问）
+     * 条码为空表示清除；同一批内可以互换条码
+     */
+    @PutMapping("/barcodes")
+    @RequireRole(Role.ADMIN)
+    public Result<Void> assignBarcodes(@Valid @RequestBody BarcodeBatchRequest request) {
+        Map<Long, String> barcodes = new LinkedHashMap<>();
+        for (BarcodeItem item : request.items()) {
+            if (barcodes.containsKey(item.productId())) {
+                throw new BusinessException(1001, "商品ID重复: " + item.productId());
+            }
+            barcodes.put(item.productId(), item.barcode());
+        }
+        productService.assignBarcodes(barcodes);
+        return Result.success("条码设置成功", null);
+    }
+
     /**
      * 修改商品库存
      * 所有角色都可以修改库存
@@ -124,6 +200,9 @@ public class ProductController {
     public record ProductRequest(
             @NotBlank(message = "商品名称不能为空")
             String name,
+            @Size(max = 64, message = "条码长度不能超过64个字符")
+            @Pattern(regexp = BARCODE_PATTERN, message = "条码只能包含字母、数字和常见符号")
+            String barcode,
             @NotNull(message = "价格不能为空")
             @Min(value = 0, message = "价格不能为负数")
             Long price,
@@ -136,6 +215,27 @@ public class ProductController {
     ) {
     }
 
+    /**
+     * 批量设置条码请求DTO
+     */
+    public record BarcodeBatchRequest(
+            @NotEmpty(message = "条码列表不能为空")
+            List<@Valid BarcodeItem> items
+    ) {
+    }
+
+    /**
+     * 单个商品的条码
+     */
+    public record BarcodeItem(
+            @NotNull(message = "商品ID不能为空")
+            Long productId,
+            @Size(max = 64, message = "条码长度不能超过64个字符")
+            @Pattern(regexp = BARCODE_PATTERN, message = "条码只能包含字母、数字和常见符号")
+            String barcode
+    ) {
+    }
+
     /**
      * 库存更新请求DTO
      */
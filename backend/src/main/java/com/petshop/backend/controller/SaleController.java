@@ -1,16 +1,30 @@
 package com.petshop.backend.controller;
 
+import com.petshop.backend.annotation.RequireRole;
+import com.petshop.backend.dto.GroupCommitStats;
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.Result;
 import com.petshop.backend.dto.SaleCreateRequest;
+import com.petshop.backend.dto.SaleJournalStatus;
 import com.petshop.backend.dto.SaleResponse;
+import com.petshop.backend.dto.StageLatency;
 import com.petshop.backend.entity.Sale;
+import com.petshop.backend.entity.SaleJournalConflict;
+import com.petshop.backend.enums.Role;
+import com.petshop.backend.enums.SaleItemsMode;
+import com.petshop.backend.enums.TotalMode;
+import com.petshop.backend.service.CheckoutMetricsService;
+import com.petshop.backend.service.IdempotencyService;
+import com.petshop.backend.service.SaleGroupCommitService;
+import com.petshop.backend.service.SaleJournalService;
 import com.petshop.backend.service.SaleService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 商品销售控制器
  */
@@ -20,32 +34,101 @@ import org.springframework.web.bind.annotation.*;
 public class SaleController {
 
     private final SaleService saleService;
+    private final SaleGroupCommitService saleGroupCommitService;
+    private final IdempotencyService idempotencyService;
+    private final CheckoutMetricsService checkoutMetricsService;
+    private final SaleJournalService saleJournalService;
 
     /**
      * 创建销售记录（散客和会员通用）
+     * 携带 Idempotency-Key 时，重试请求直接返回首次开单结果；
+     * 数据库不可用时开单暂存在本地，返回 journalSeq 而不是销售ID
      */
     @PostMapping
     public Result<SaleResponse> createSale(
             @Valid @RequestBody SaleCreateRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
         Long operatorId = (Long) httpRequest.getAttribute("userId");
-        SaleResponse response = saleService.createSale(request, operatorId);
+        SaleResponse response = idempotencyService.execute("POST /sales", idempotencyKey, SaleResponse.class,
+                () -> saleGroupCommitService.createSale(request, operatorId));
+        if (response.getJournalSeq() != null) {
+            return Result.success("数据库暂不可用，开单已暂存，恢复后自动补录", response);
+        }
         return Result.success("开单成功", response);
     }
 
     /**
      * 获取销售记录列表
+     * 传入 cursor 参数（首页传空值）时使用游标分页，否则按 page 分页
+     * includeItems=true 时一并返回本页全部明细（itemSummary=true 时只返回摘要），无需再逐条查询详情
      */
     @GetMapping
     public Result<PageResult<Sale>> findByPage(
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
-        PageResult<Sale> result = saleService.findByPage(page, pageSize, startDate, endDate);
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") Boolean includeItems,
+            @RequestParam(defaultValue = "false") Boolean itemSummary,
+            @RequestParam(defaultValue = "true") Boolean withTotal,
+            @RequestParam(defaultValue = "false") Boolean approximateTotal) {
+        SaleItemsMode itemsMode = SaleItemsMode.of(includeItems, itemSummary);
+        if (cursor != null) {
+            return Result.success(saleService.findByCursor(cursor, pageSize, startDate, endDate, itemsMode));
+        }
+        PageResult<Sale> result = saleService.findByPage(page, pageSize, startDate, endDate, itemsMode,
+                TotalMode.of(withTotal, approximateTotal));
         return Result.success(result);
     }
 
+    /**
+     * 获取开单批量提交统计（仅管理员可访问）
+     */
+    @GetMapping("/group-commit/stats")
+    @RequireRole(Role.ADMIN)
+    public Result<GroupCommitStats> getGroupCommitStats() {
+        return Result.success(saleGroupCommitService.getStats());
+    }
+
+    /**
+     * 获取开单各阶段耗时统计（仅管理员可访问）
+     */
+    @GetMapping("/stage-latency")
+    @RequireRole(Role.ADMIN)
+    public Result<List<StageLatency>> getStageLatencies() {
+        return Result.success(checkoutMetricsService.getStageLatencies());
+    }
+
+    /**
+     * 获取开单本地暂存状态（仅管理员可访问）
+     */
+    @GetMapping("/journal/status")
+    @RequireRole(Role.ADMIN)
+    public Result<SaleJournalStatus> getJournalStatus() {
+        return Result.success(saleJournalService.getStatus());
+    }
+
+    /**
+     * 获取暂存开单补录冲突列表（仅管理员可访问）
+     */
+    @GetMapping("/journal/conflicts")
+    @RequireRole(Role.ADMIN)
+    public Result<List<SaleJournalConflict>> getJournalConflicts() {
+        return Result.success(saleJournalService.findConflicts());
+    }
+
+    /**
+     * 处理完补录冲突后将其移除（仅管理员可访问）
+     */
+    @DeleteMapping("/journal/conflicts/{id}")
+    @RequireRole(Role.ADMIN)
+    public Result<Void> resolveJournalConflict(@PathVariable Long id) {
+        saleJournalService.resolveConflict(id);
+        return Result.success("处理成功", null);
+    }
+
     /**
      * 根据ID获取销售记录详情
      */
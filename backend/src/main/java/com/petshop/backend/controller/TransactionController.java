@@ -1,10 +1,15 @@
 package com.petshop.backend.controller;
 
+import com.petshop.backend.annotation.RequireRole;
 import com.petshop.backend.dto.MonthlyStatistics;
+import com.petshop.backend.dto.OutboxStatus;
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.Result;
 import com.petshop.backend.dto.TransactionStatistics;
 import com.petshop.backend.entity.Transaction;
+import com.petshop.backend.enums.Role;
+import com.petshop.backend.enums.TotalMode;
+import com.petshop.backend.service.AccountingOutboxService;
 import com.petshop.backend.service.TransactionService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
@@ -20,9 +25,11 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final AccountingOutboxService accountingOutboxService;
 
     /**
      * 获取财务记录列表
+     * 传入 cursor 参数（首页传空值）时使用游标分页，否则按 page 分页
      */
     @GetMapping
     public Result<PageResult<Transaction>> findByPage(
@@ -31,8 +38,15 @@ public class TransactionController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String search) {
-        PageResult<Transaction> result = transactionService.findByPage(page, pageSize, type, startDate, endDate, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") Boolean withTotal,
+            @RequestParam(defaultValue = "false") Boolean approximateTotal) {
+        if (cursor != null) {
+            return Result.success(transactionService.findByCursor(cursor, pageSize, type, startDate, endDate, search));
+        }
+        PageResult<Transaction> result = transactionService.findByPage(page, pageSize, type, startDate, endDate, search,
+                TotalMode.of(withTotal, approximateTotal));
         return Result.success(result);
     }
 
@@ -107,6 +121,15 @@ public class TransactionController {
         return Result.success("查询成功", statistics);
     }
 
+    /**
+     * 获取开单记账同步状态（积压数量和延迟，仅管理员可访问）
+     */
+    @GetMapping("/outbox/status")
+    @RequireRole(Role.ADMIN)
+    public Result<OutboxStatus> getOutboxStatus() {
+        return Result.success(accountingOutboxService.getStatus());
+    }
+
     /**
      * 财务记录请求DTO
      */
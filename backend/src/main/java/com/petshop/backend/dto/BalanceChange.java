@@ -0,0 +1,32 @@
+package com.petshop.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 余额原子变动参数
+ */
+@Data
+@NoArgsConstructor
+public class BalanceChange {
+
+    /**
+     * 客户ID
+     */
+    private Long customerId;
+
+    /**
+     * 变动量（单位：分），充值为正，扣减为负
+     */
+    private Long delta;
+
+    /**
+     * 语句执行后由驱动回填的 LAST_INSERT_ID，值为变动后余额 + 1
+     */
+    private Long lastInsertId;
+
+    public BalanceChange(Long customerId, Long delta) {
+        this.customerId = customerId;
+        this.delta = delta;
+    }
+}
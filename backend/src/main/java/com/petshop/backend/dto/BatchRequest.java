@@ -0,0 +1,56 @@
+package com.petshop.backend.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量请求
+ */
+@Data
+public class BatchRequest {
+
+    /**
+     * 子请求列表，按顺序返回结果
+     */
+    @NotEmpty(message = "子请求列表不能为空")
+    private List<@Valid Item> requests;
+
+    /**
+     * 子请求
+     */
+    @Data
+    public static class Item {
+        /**
+         * 请求方法（GET/POST/PUT/PATCH/DELETE）
+         */
+        @NotBlank(message = "请求方法不能为空")
+        private String method;
+
+        /**
+         * 接口路径（不含 /api/v1 前缀），可带查询参数，如 /customers/1/consumption-records?pageSize=5
+         */
+        @NotBlank(message = "接口路径不能为空")
+        private String path;
+
+        /**
+         * 查询参数（值为数组时表示多值参数）
+         */
+        private Map<String, Object> params;
+
+        /**
+         * 请求头（如 Idempotency-Key），认证信息沿用批量请求本身的 token
+         */
+        private Map<String, String> headers;
+
+        /**
+         * 请求体（JSON）
+         */
+        private JsonNode body;
+    }
+}
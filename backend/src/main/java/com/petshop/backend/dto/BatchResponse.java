@@ -0,0 +1,24 @@
+package com.petshop.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 批量请求中单个子请求的结果
+ */
+@Data
+@AllArgsConstructor
+public class BatchResponse {
+
+    /**
+     * HTTP 状态码
+     */
+    private Integer status;
+
+    /**
+     * 响应体（与单独调用该接口时的统一响应格式相同），原样输出
+     */
+    @JsonRawValue
+    private String body;
+}
@@ -0,0 +1,43 @@
+package com.petshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 客户联想DTO（收银时按手机号查找会员）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSuggestion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 客户ID
+     */
+    private Long id;
+
+    /**
+     * 宠物名称
+     */
+    private String petName;
+
+    /**
+     * 主人姓名
+     */
+    private String ownerName;
+
+    /**
+     * 电话号码
+     */
+    private String phone;
+
+    /**
+     * 会员级别
+     */
+    private Integer memberLevel;
+}
@@ -0,0 +1,48 @@
+package com.petshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 销售批量提交统计DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupCommitStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用批量提交
+     */
+    private Boolean enabled;
+
+    /**
+     * 已提交批次数
+     */
+    private Long batches;
+
+    /**
+     * 已处理销售数
+     */
+    private Long sales;
+
+    /**
+     * 平均每批销售数
+     */
+    private Double meanBatchSize;
+
+    /**
+     * 最近统计窗口内的最大批次
+     */
+    private Double maxBatchSize;
+
+    /**
+     * 当前排队等待的销售数
+     */
+    private Integer queueSize;
+}
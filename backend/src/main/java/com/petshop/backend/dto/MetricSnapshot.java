@@ -0,0 +1,34 @@
+package com.petshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 监控指标快照DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 指标名称
+     */
+    private String name;
+
+    /**
+     * 指标标签
+     */
+    private Map<String, String> tags;
+
+    /**
+     * 各统计量的当前值（如 COUNT、TOTAL、MAX）
+     */
+    private Map<String, Double> measurements;
+}
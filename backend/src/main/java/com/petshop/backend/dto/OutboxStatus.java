@@ -0,0 +1,47 @@
+package com.petshop.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 财务记账同步状态DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatus implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 待同步记录数
+     */
+    private Long pending;
+
+    /**
+     * 最早一条待同步记录的创建时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime oldestPendingAt;
+
+    /**
+     * 同步延迟（秒），无待同步记录时为0
+     */
+    private Long lagSeconds;
+
+    /**
+     * 本次启动以来已同步的销售数
+     */
+    private Long synced;
+
+    /**
+     * 最近一次同步任务完成时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastRunAt;
+}
@@ -23,10 +23,15 @@ public class PageResult<T> implements Serializable {
     private List<T> list;
 
     /**
-     * 总记录数
+     * 总记录数（withTotal=false 或游标分页时为空）
      */
     private Long total;
 
+    /**
+     * 总数是否精确，false 表示使用了近似总数
+     */
+    private Boolean totalExact;
+
     /**
      * 当前页码
      */
@@ -36,4 +41,13 @@ public class PageResult<T> implements Serializable {
      * 每页数量
      */
     private Integer pageSize;
+
+    /**
+     * 下一页游标（游标分页时返回，没有下一页时为空）
+     */
+    private String nextCursor;
+
+    public PageResult(List<T> list, Long total, Integer page, Integer pageSize) {
+        this(list, total, total != null ? Boolean.TRUE : null, page, pageSize, null);
+    }
 }
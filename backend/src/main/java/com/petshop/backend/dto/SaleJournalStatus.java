@@ -0,0 +1,56 @@
+package com.petshop.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 开单本地暂存状态DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleJournalStatus implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用本地暂存
+     */
+    private Boolean enabled;
+
+    /**
+     * 待补录的开单数，大于0时新开单直接暂存
+     */
+    private Integer pending;
+
+    /**
+     * 已使用字节数
+     */
+    private Long usedBytes;
+
+    /**
+     * 总容量字节数
+     */
+    private Long capacityBytes;
+
+    /**
+     * 本次启动以来已补录的开单数
+     */
+    private Long replayed;
+
+    /**
+     * 待处理的补录冲突数（数据库不可用时为空）
+     */
+    private Long conflicts;
+
+    /**
+     * 最近一次补录成功时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastReplayAt;
+}
@@ -2,15 +2,17 @@ package com.petshop.backend.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * 销售响应DTO
  */
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class SaleResponse {
     /**
-     * 销售记录ID
+     * 销售记录ID（暂存的开单为空，补录后生成）
      */
     private Long id;
 
@@ -23,4 +25,13 @@ public class SaleResponse {
      * 销售时间
      */
     private String saleDate;
+
+    /**
+     * 本地暂存序号，仅在数据库不可用、开单被暂存时返回
+     */
+    private Long journalSeq;
+
+    public SaleResponse(Long id, Long totalAmount, String saleDate) {
+        this(id, totalAmount, saleDate, null);
+    }
 }
@@ -0,0 +1,68 @@
+package com.petshop.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 开单阶段耗时统计DTO（单位：毫秒）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageLatency implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 阶段名称
+     */
+    private String stage;
+
+    /**
+     * 购物车商品行数区间：1、2-5、6-10、11+
+     */
+    private String basketSize;
+
+    /**
+     * 是否使用余额支付
+     */
+    private Boolean balance;
+
+    /**
+     * 是否同步到财务
+     */
+    private Boolean accounting;
+
+    /**
+     * 累计次数
+     */
+    private Long count;
+
+    /**
+     * 平均耗时
+     */
+    private Double mean;
+
+    /**
+     * 最近统计窗口内的中位数
+     */
+    private Double p50;
+
+    /**
+     * 最近统计窗口内的95分位
+     */
+    private Double p95;
+
+    /**
+     * 最近统计窗口内的99分位
+     */
+    private Double p99;
+
+    /**
+     * 最近统计窗口内的最大耗时
+     */
+    private Double max;
+}
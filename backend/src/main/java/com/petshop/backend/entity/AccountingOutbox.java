@@ -0,0 +1,22 @@
+package com.petshop.backend.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 财务记账待同步记录实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class AccountingOutbox extends BaseEntity {
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 待记账的销售记录ID
+     */
+    private Long saleId;
+}
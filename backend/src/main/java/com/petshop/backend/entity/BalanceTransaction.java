@@ -53,7 +53,7 @@ public class BalanceTransaction extends BaseEntity {
     private Long operatorId;
 
     /**
-     * 操作人名称（关联查询，不存储）
+     * 操作人名称（查询后由用户目录填充，不存储）
      */
     private String operatorName;
 
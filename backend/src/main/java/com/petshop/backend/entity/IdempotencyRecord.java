@@ -0,0 +1,22 @@
+package com.petshop.backend.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 请求幂等记录实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class IdempotencyRecord extends BaseEntity {
+
+    /**
+     * 作用域+幂等键
+     */
+    private String requestKey;
+
+    /**
+     * 首次执行结果（JSON）
+     */
+    private String response;
+}
@@ -20,6 +20,11 @@ public class Product extends BaseEntity {
      */
     private String name;
 
+    /**
+     * 条码（唯一，可为空）
+     */
+    private String barcode;
+
     /**
      * 价格（单位：分）
      */
@@ -39,4 +44,21 @@ public class Product extends BaseEntity {
      * 商品描述
      */
     private String description;
+
+    /**
+     * 复制一份（缓存中的商品返回给调用方前复制，调用方可以随意修改，如隐藏价格）
+     */
+    public Product copy() {
+        Product copy = new Product();
+        copy.setId(id);
+        copy.setName(name);
+        copy.setBarcode(barcode);
+        copy.setPrice(price);
+        copy.setStock(stock);
+        copy.setImageUrl(imageUrl);
+        copy.setDescription(description);
+        copy.setCreatedAt(getCreatedAt());
+        copy.setUpdatedAt(getUpdatedAt());
+        return copy;
+    }
 }
@@ -52,8 +52,23 @@ public class Sale extends BaseEntity {
      */
     private Boolean paidWithBalance;
 
+    /**
+     * 本地暂存键（仅补录的销售有值，用于补录去重）
+     */
+    private String journalKey;
+
     /**
      * 销售明细列表（关联查询时填充）
      */
     private List<SaleItem> items;
+
+    /**
+     * 明细摘要，如"皇家狗粮x2、豆腐猫砂x1"（列表按摘要返回明细时填充）
+     */
+    private String itemSummary;
+
+    /**
+     * 商品总件数（列表按摘要返回明细时填充）
+     */
+    private Integer itemCount;
 }
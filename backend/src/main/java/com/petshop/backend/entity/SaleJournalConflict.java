@@ -0,0 +1,51 @@
+package com.petshop.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * 开单补录冲突实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class SaleJournalConflict extends BaseEntity {
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 本地暂存序号（与暂存时返回的 journalSeq 对应）
+     */
+    private Long journalSeq;
+
+    /**
+     * 开单操作人ID
+     */
+    private Long operatorId;
+
+    /**
+     * 开单请求（JSON）
+     */
+    private String request;
+
+    /**
+     * 补录失败错误码
+     */
+    private Integer errorCode;
+
+    /**
+     * 补录失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 暂存时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime acceptedAt;
+}
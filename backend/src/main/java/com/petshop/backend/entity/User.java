@@ -40,4 +40,26 @@ public class User extends BaseEntity {
      * 用户角色
      */
     private Role role;
+
+    /**
+     * 复制（不含密码），用于从缓存返回，避免调用方修改缓存中的对象
+     */
+    public User copyWithoutPassword() {
+        User copy = new User();
+        copy.setId(id);
+        copy.setUsername(username);
+        copy.setNickname(nickname);
+        copy.setAvatar(avatar);
+        copy.setRole(role);
+        copy.setCreatedAt(getCreatedAt());
+        copy.setUpdatedAt(getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * 显示名称：昵称为空时使用用户名
+     */
+    public String displayName() {
+        return nickname != null ? nickname : username;
+    }
 }
@@ -0,0 +1,61 @@
+package com.petshop.backend.enums;
+
+/**
+ * 开单阶段枚举（用于分阶段耗时统计）
+ */
+public enum CheckoutStage {
+    /**
+     * 内存预占库存
+     */
+    RESERVE_STOCK("reserve_stock"),
+
+    /**
+     * 验证商品库存
+     */
+    VALIDATE_PRODUCTS("validate_products"),
+
+    /**
+     * 扣减库存
+     */
+    DEDUCT_STOCK("deduct_stock"),
+
+    /**
+     * 扣减余额
+     */
+    DEDUCT_BALANCE("deduct_balance"),
+
+    /**
+     * 创建销售记录
+     */
+    CREATE_SALE("create_sale"),
+
+    /**
+     * 创建销售项
+     */
+    CREATE_ITEMS("create_items"),
+
+    /**
+     * 创建消费记录
+     */
+    CREATE_CONSUMPTION("create_consumption"),
+
+    /**
+     * 登记财务记账
+     */
+    SYNC_ACCOUNTING("sync_accounting"),
+
+    /**
+     * 开单总耗时（不含事务提交）
+     */
+    TOTAL("total");
+
+    private final String tag;
+
+    CheckoutStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
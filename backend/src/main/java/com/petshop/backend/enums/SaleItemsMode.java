@@ -0,0 +1,34 @@
+package com.petshop.backend.enums;
+
+/**
+ * 销售记录列表中明细的返回方式枚举
+ */
+public enum SaleItemsMode {
+    /**
+     * 不返回明细
+     */
+    NONE,
+
+    /**
+     * 返回完整明细列表
+     */
+    FULL,
+
+    /**
+     * 只返回明细摘要（商品名x数量，件数）
+     */
+    SUMMARY;
+
+    /**
+     * 根据请求参数确定明细返回方式
+     *
+     * @param includeItems 是否需要明细
+     * @param itemSummary 是否只需要摘要
+     */
+    public static SaleItemsMode of(Boolean includeItems, Boolean itemSummary) {
+        if (!Boolean.TRUE.equals(includeItems)) {
+            return NONE;
+        }
+        return Boolean.TRUE.equals(itemSummary) ? SUMMARY : FULL;
+    }
+}
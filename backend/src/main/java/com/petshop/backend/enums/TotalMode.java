@@ -0,0 +1,34 @@
+package com.petshop.backend.enums;
+
+/**
+ * 分页总数模式枚举
+ */
+public enum TotalMode {
+    /**
+     * 精确总数（命中未失效的缓存或实时统计）
+     */
+    EXACT,
+
+    /**
+     * 允许使用已失效但不太旧的缓存总数
+     */
+    APPROXIMATE,
+
+    /**
+     * 不返回总数
+     */
+    NONE;
+
+    /**
+     * 根据请求参数确定总数模式
+     *
+     * @param withTotal 是否需要总数
+     * @param approximateTotal 是否接受近似总数
+     */
+    public static TotalMode of(Boolean withTotal, Boolean approximateTotal) {
+        if (Boolean.FALSE.equals(withTotal)) {
+            return NONE;
+        }
+        return Boolean.TRUE.equals(approximateTotal) ? APPROXIMATE : EXACT;
+    }
+}
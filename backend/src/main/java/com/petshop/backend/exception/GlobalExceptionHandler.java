@@ -3,6 +3,7 @@ package com.petshop.backend.exception;
 import com.petshop.backend.dto.Result;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -45,6 +46,16 @@ public class GlobalExceptionHandler {
         return Result.error(2001, e.getMessage());
     }
 
+    /**
+     * 处理未经重试的锁冲突（死锁、锁等待超时），提示客户端稍后重试
+     */
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Result<Void> handlePessimisticLockingFailureException(PessimisticLockingFailureException e) {
+        log.warn("锁冲突: {}", e.getMessage());
+        return Result.error(503, "系统繁忙，请稍后重试");
+    }
+
     /**
      * 处理参数校验异常
      */
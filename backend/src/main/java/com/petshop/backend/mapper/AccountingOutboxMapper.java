@@ -0,0 +1,40 @@
+package com.petshop.backend.mapper;
+
+import com.petshop.backend.entity.AccountingOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 财务记账待同步Mapper接口
+ */
+@Mapper
+public interface AccountingOutboxMapper {
+
+    /**
+     * 写入待同步记录（同一销售重复写入时忽略）
+     */
+    int insert(@Param("saleId") Long saleId);
+
+    /**
+     * 锁定一批待同步记录，已被其他实例锁定的记录跳过
+     */
+    List<AccountingOutbox> lockPending(@Param("limit") Integer limit);
+
+    /**
+     * 删除已同步的记录
+     */
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询待同步记录数
+     */
+    Long countPending();
+
+    /**
+     * 查询最早一条待同步记录的创建时间
+     */
+    LocalDateTime findOldestCreatedAt();
+}
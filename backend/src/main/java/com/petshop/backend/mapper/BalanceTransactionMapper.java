@@ -24,6 +24,14 @@ public interface BalanceTransactionMapper {
      */
     Long countByCustomerId(@Param("customerId") Long customerId);
 
+    /**
+     * 游标分页查询客户的余额交易历史（按 created_at, id 倒序，从游标之后开始）
+     */
+    List<BalanceTransaction> findByCustomerIdAndCursor(@Param("customerId") Long customerId,
+                                                       @Param("cursorKey") String cursorKey,
+                                                       @Param("cursorId") Long cursorId,
+                                                       @Param("limit") Integer limit);
+
     /**
      * 创建余额交易记录
      */
@@ -21,6 +21,16 @@ public interface ConsumptionRecordMapper {
                                                      @Param("startDate") String startDate,
                                                      @Param("endDate") String endDate);
 
+    /**
+     * 游标分页查询客户的消费记录列表（按 date, id 倒序，从游标之后开始）
+     */
+    List<ConsumptionRecord> findByCustomerIdAndCursor(@Param("customerId") Long customerId,
+                                                      @Param("cursorKey") String cursorKey,
+                                                      @Param("cursorId") Long cursorId,
+                                                      @Param("limit") Integer limit,
+                                                      @Param("startDate") String startDate,
+                                                      @Param("endDate") String endDate);
+
     /**
      * 查询客户的消费记录总数
      */
@@ -1,8 +1,11 @@
 package com.petshop.backend.mapper;
 
+import com.petshop.backend.dto.BalanceChange;
+import com.petshop.backend.dto.CustomerSuggestion;
 import com.petshop.backend.entity.Customer;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -14,12 +17,15 @@ public interface CustomerMapper {
 
     /**
      * 分页查询客户列表
+     *
+     * @param columns 要查询的列，null 表示全部列
      */
     List<Customer> findByPage(@Param("offset") Integer offset,
                               @Param("pageSize") Integer pageSize,
                               @Param("search") String search,
                               @Param("isMember") Boolean isMember,
-                              @Param("memberLevel") Integer memberLevel);
+                              @Param("memberLevel") Integer memberLevel,
+                              @Param("columns") List<String> columns);
 
     /**
      * 查询客户总数
@@ -28,6 +34,41 @@ public interface CustomerMapper {
                          @Param("isMember") Boolean isMember,
                          @Param("memberLevel") Integer memberLevel);
 
+    /**
+     * 在指定ID范围内分页查询客户列表（搜索索引命中的客户）
+     *
+     * @param columns 要查询的列，null 表示全部列
+     */
+    List<Customer> findByIdsPage(@Param("ids") long[] ids,
+                                 @Param("offset") Integer offset,
+                                 @Param("pageSize") Integer pageSize,
+                                 @Param("isMember") Boolean isMember,
+                                 @Param("memberLevel") Integer memberLevel,
+                                 @Param("columns") List<String> columns);
+
+    /**
+     * 查询指定ID范围内的客户总数
+     */
+    Long countByIds(@Param("ids") long[] ids,
+                    @Param("isMember") Boolean isMember,
+                    @Param("memberLevel") Integer memberLevel);
+
+    /**
+     * 流式读取全部客户的可搜索字段（id、宠物名、主人姓名、手机号），用于构建搜索索引
+     */
+    void scanSearchFields(ResultHandler<Customer> handler);
+
+    /**
+     * 按ID批量查询客户联想信息
+     */
+    List<CustomerSuggestion> findSuggestionsByIds(@Param("ids") long[] ids);
+
+    /**
+     * 查询手机号以指定数字开头的客户联想信息（走 idx_phone 前缀范围扫描）
+     */
+    List<CustomerSuggestion> findSuggestionsByPhonePrefix(@Param("prefix") String prefix,
+                                                          @Param("limit") Integer limit);
+
     /**
      * 根据ID查询客户
      */
@@ -52,4 +93,12 @@ public interface CustomerMapper {
      * 更新客户余额
      */
     int updateBalance(@Param("id") Long id, @Param("balance") Long balance);
+
+    /**
+     * 原子增减余额（扣减时要求余额充足）
+     * 变动后余额通过 LAST_INSERT_ID 回填到 change.lastInsertId（值为余额 + 1）
+     *
+     * @return 更新的行数，为0说明客户不存在或余额不足
+     */
+    int applyBalanceChange(BalanceChange change);
 }
@@ -0,0 +1,29 @@
+package com.petshop.backend.mapper;
+
+import com.petshop.backend.entity.IdempotencyRecord;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 请求幂等记录Mapper接口
+ */
+@Mapper
+public interface IdempotencyRecordMapper {
+
+    /**
+     * 根据键查询幂等记录
+     */
+    IdempotencyRecord findByKey(@Param("requestKey") String requestKey);
+
+    /**
+     * 保存幂等记录（键已存在时忽略）
+     */
+    int insert(IdempotencyRecord record);
+
+    /**
+     * 删除指定时间之前的记录
+     */
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
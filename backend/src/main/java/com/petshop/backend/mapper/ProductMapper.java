@@ -4,7 +4,9 @@ import com.petshop.backend.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品Mapper接口
@@ -14,10 +16,13 @@ public interface ProductMapper {
 
     /**
      * 分页查询商品列表
+     *
+     * @param columns 要查询的列，null 表示全部列
      */
     List<Product> findByPage(@Param("offset") Integer offset,
                              @Param("pageSize") Integer pageSize,
-                             @Param("search") String search);
+                             @Param("search") String search,
+                             @Param("columns") List<String> columns);
 
     /**
      * 查询商品总数
@@ -29,6 +34,26 @@ public interface ProductMapper {
      */
     Product findById(Long id);
 
+    /**
+     * 根据ID列表批量查询商品
+     */
+    List<Product> findByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 加锁读取商品库存（只含 id、name、stock），须在事务中调用
+     */
+    List<Product> findStockForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询全部商品（用于构建商品搜索索引）
+     */
+    List<Product> findAll();
+
+    /**
+     * 查询所有商品的库存快照（仅ID、名称、库存）
+     */
+    List<Product> findStockSnapshot();
+
     /**
      * 创建商品
      */
@@ -51,6 +76,31 @@ public interface ProductMapper {
      */
     int deductStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 
+    /**
+     * 批量扣减库存（单条语句，每个商品带库存条件）
+     *
+     * @param quantities 商品ID -> 扣减数量
+     * @return 更新的行数，小于商品数说明有商品库存不足
+     */
+    int deductStockBatch(@Param("quantities") Map<Long, Integer> quantities);
+
+    /**
+     * 根据条码查询商品
+     */
+    Product findByBarcode(@Param("barcode") String barcode);
+
+    /**
+     * 清空指定商品的条码
+     */
+    int clearBarcodes(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量设置条码（单条语句）
+     *
+     * @param barcodes 商品ID -> 条码
+     */
+    int updateBarcodeBatch(@Param("barcodes") Map<Long, String> barcodes);
+
     /**
      * 删除商品
      */
@@ -17,6 +17,11 @@ public interface SaleItemMapper {
      */
     List<SaleItem> findBySaleId(Long saleId);
 
+    /**
+     * 根据销售记录ID列表批量查询销售项，按销售记录ID、销售项ID排序
+     */
+    List<SaleItem> findBySaleIds(@Param("saleIds") List<Long> saleIds);
+
     /**
      * 创建销售项
      */
@@ -0,0 +1,34 @@
+package com.petshop.backend.mapper;
+
+import com.petshop.backend.entity.SaleJournalConflict;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 开单补录冲突Mapper接口
+ */
+@Mapper
+public interface SaleJournalConflictMapper {
+
+    /**
+     * 记录补录冲突（同一暂存序号重复写入时忽略）
+     */
+    int insert(SaleJournalConflict conflict);
+
+    /**
+     * 查询全部待处理冲突
+     */
+    List<SaleJournalConflict> findAll();
+
+    /**
+     * 查询待处理冲突数
+     */
+    Long count();
+
+    /**
+     * 删除已处理的冲突
+     */
+    int deleteById(@Param("id") Long id);
+}
@@ -25,6 +25,15 @@ public interface SaleMapper {
      */
     Long countByDateRange(@Param("startDate") String startDate, @Param("endDate") String endDate);
 
+    /**
+     * 游标分页查询销售记录（按 sale_date, id 倒序，从游标之后开始）
+     */
+    List<Sale> findByCursor(@Param("cursorKey") String cursorKey,
+                            @Param("cursorId") Long cursorId,
+                            @Param("limit") Integer limit,
+                            @Param("startDate") String startDate,
+                            @Param("endDate") String endDate);
+
     /**
      * 根据ID查询销售记录
      */
@@ -35,11 +44,21 @@ public interface SaleMapper {
      */
     Sale findWithItemsById(Long id);
 
+    /**
+     * 根据ID列表批量查询销售记录（包含明细项）
+     */
+    List<Sale> findWithItemsByIds(@Param("ids") List<Long> ids);
+
     /**
      * 创建销售记录
      */
     int insert(Sale sale);
 
+    /**
+     * 根据本地暂存键查询销售ID
+     */
+    Long findIdByJournalKey(@Param("journalKey") String journalKey);
+
     /**
      * 更新关联的财务记录ID
      */
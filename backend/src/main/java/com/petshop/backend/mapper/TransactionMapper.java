@@ -22,7 +22,20 @@ public interface TransactionMapper {
                                  @Param("type") String type,
                                  @Param("startDate") String startDate,
                                  @Param("endDate") String endDate,
-                                 @Param("search") String search);
+                                 @Param("search") String search,
+                                 @Param("fulltext") String fulltext);
+
+    /**
+     * 游标分页查询财务记录列表（按 date, id 倒序，从游标之后开始）
+     */
+    List<Transaction> findByCursor(@Param("cursorKey") String cursorKey,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("limit") Integer limit,
+                                   @Param("type") String type,
+                                   @Param("startDate") String startDate,
+                                   @Param("endDate") String endDate,
+                                   @Param("search") String search,
+                                   @Param("fulltext") String fulltext);
 
     /**
      * 查询财务记录总数
@@ -30,7 +43,13 @@ public interface TransactionMapper {
     Long countByCondition(@Param("type") String type,
                          @Param("startDate") String startDate,
                          @Param("endDate") String endDate,
-                         @Param("search") String search);
+                         @Param("search") String search,
+                         @Param("fulltext") String fulltext);
+
+    /**
+     * 统计描述全文索引 ft_description 是否存在（0 表示未执行 005 迁移）
+     */
+    int countFulltextIndex();
 
     /**
      * 根据ID查询财务记录
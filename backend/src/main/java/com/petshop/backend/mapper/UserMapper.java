@@ -4,6 +4,7 @@ import com.petshop.backend.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,6 +23,11 @@ public interface UserMapper {
      */
     User findById(Long id);
 
+    /**
+     * 根据ID列表批量查询用户
+     */
+    List<User> findByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 分页查询用户列表
      */
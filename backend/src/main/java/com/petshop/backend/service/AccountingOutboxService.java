@@ -0,0 +1,27 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.OutboxStatus;
+
+/**
+ * 财务记账同步服务接口
+ * 开单事务内只写入待同步记录，财务记录由后台任务批量生成
+ */
+public interface AccountingOutboxService {
+
+    /**
+     * 在当前事务中登记待记账的销售
+     */
+    void enqueue(Long saleId);
+
+    /**
+     * 处理一批待同步记录
+     *
+     * @return 本批处理的记录数
+     */
+    int drainBatch();
+
+    /**
+     * 获取同步状态（积压数量和延迟）
+     */
+    OutboxStatus getStatus();
+}
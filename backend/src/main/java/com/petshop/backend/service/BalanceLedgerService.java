@@ -0,0 +1,19 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.entity.BalanceTransaction;
+
+/**
+ * 会员余额账本服务接口
+ * 充值、扣减和销售余额支付统一通过此处原子修改余额并记录变动历史
+ */
+public interface BalanceLedgerService {
+
+    /**
+     * 原子变动余额并写入余额变动记录
+     *
+     * @param amount 变动金额（单位：分，>0）
+     * @return 已写入的变动记录，包含变动前后余额
+     */
+    BalanceTransaction apply(Long customerId, BalanceTransaction.TransactionType type,
+                             Long amount, String description, Long operatorId);
+}
@@ -0,0 +1,26 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.BatchRequest;
+import com.petshop.backend.dto.BatchResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.List;
+
+/**
+ * 批量请求服务接口
+ * 在一次 HTTP 请求中执行多个接口调用，认证只做一次
+ */
+public interface BatchService {
+
+    /**
+     * 执行子请求
+     * 全部为 GET 时并发执行，否则按顺序逐个执行
+     *
+     * @param items 子请求
+     * @param request 批量请求本身（已通过认证）
+     * @param response 批量请求本身的响应
+     * @return 各子请求的结果，顺序与 items 一致
+     */
+    List<BatchResponse> execute(List<BatchRequest.Item> items, HttpServletRequest request, HttpServletResponse response);
+}
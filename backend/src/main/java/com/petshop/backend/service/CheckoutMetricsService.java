@@ -0,0 +1,38 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.StageLatency;
+import com.petshop.backend.enums.CheckoutStage;
+
+import java.util.List;
+
+/**
+ * 开单分阶段耗时统计服务接口
+ * 计时器在启动时全部注册，开单过程中只做数组下标查找，不产生额外对象
+ */
+public interface CheckoutMetricsService {
+
+    /**
+     * 计算一次开单对应的标签组合编号
+     *
+     * @param basketSize 购物车商品行数
+     * @param useBalance 是否使用余额支付
+     * @param recordToAccounting 是否同步到财务
+     * @return 标签组合编号，传给 record
+     */
+    int profile(int basketSize, boolean useBalance, boolean recordToAccounting);
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param stage 阶段
+     * @param profile 标签组合编号
+     * @param startNanos 阶段开始时间（System.nanoTime）
+     * @return 当前时间（System.nanoTime），可作为下一阶段的开始时间
+     */
+    long record(CheckoutStage stage, int profile, long startNanos);
+
+    /**
+     * 获取有数据的各阶段耗时统计
+     */
+    List<StageLatency> getStageLatencies();
+}
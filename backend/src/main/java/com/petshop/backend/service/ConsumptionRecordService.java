@@ -12,6 +12,11 @@ public interface ConsumptionRecordService {
      */
     com.petshop.backend.dto.PageResult<ConsumptionRecord> findByCustomerIdAndPage(Long customerId, Integer page, Integer pageSize, String startDate, String endDate);
 
+    /**
+     * 游标分页查询客户的消费记录列表，cursor 为空时查询第一页
+     */
+    com.petshop.backend.dto.PageResult<ConsumptionRecord> findByCustomerIdAndCursor(Long customerId, String cursor, Integer pageSize, String startDate, String endDate);
+
     /**
      * 根据ID查询消费记录
      */
@@ -0,0 +1,37 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.entity.Customer;
+
+/**
+ * 客户搜索索引服务接口
+ * 在内存中维护宠物名、主人姓名、手机号的 n-gram 索引和手机号前缀索引，启动时全量构建，客户增删改后增量更新
+ */
+public interface CustomerSearchIndexService {
+
+    /**
+     * 搜索包含关键字的客户
+     *
+     * @param keyword 关键字
+     * @return 客户ID；索引未就绪、关键字过短或命中过多时返回 null，调用方应回退到 SQL 查询
+     */
+    long[] search(String keyword);
+
+    /**
+     * 查询手机号以指定数字开头的客户
+     *
+     * @param prefix 数字前缀（最多18位）
+     * @param limit 最多返回条数
+     * @return 客户ID，按号码升序；索引未就绪时返回 null
+     */
+    long[] findByPhonePrefix(String prefix, int limit);
+
+    /**
+     * 客户创建或更新后更新索引（在事务中调用时提交后生效）
+     */
+    void onSaved(Customer customer);
+
+    /**
+     * 客户删除后移除索引（在事务中调用时提交后生效）
+     */
+    void onDeleted(Long id);
+}
@@ -2,8 +2,12 @@ package com.petshop.backend.service;
 
 import com.petshop.backend.dto.BalanceDeductRequest;
 import com.petshop.backend.dto.BalanceRechargeRequest;
+import com.petshop.backend.dto.CustomerSuggestion;
 import com.petshop.backend.entity.BalanceTransaction;
 import com.petshop.backend.entity.Customer;
+import com.petshop.backend.enums.TotalMode;
+
+import java.util.List;
 
 /**
  * 客户服务接口
@@ -11,9 +15,20 @@ import com.petshop.backend.entity.Customer;
 public interface CustomerService {
 
     /**
-     * 分页查询客户列表
+     * 分页查询客户列表，总数按 totalMode 返回（精确/允许近似/不返回）
+     *
+     * @param fields 逗号分隔的返回字段或 summary（不含备注），为空返回全部字段
+     */
+    com.petshop.backend.dto.PageResult<Customer> findByPage(Integer page, Integer pageSize, String search, Boolean isMember, Integer memberLevel,
+                                                            String fields, TotalMode totalMode);
+
+    /**
+     * 按手机号前缀联想客户
+     *
+     * @param phonePrefix 手机号前缀（纯数字）
+     * @param limit 最多返回条数
      */
-    com.petshop.backend.dto.PageResult<Customer> findByPage(Integer page, Integer pageSize, String search, Boolean isMember, Integer memberLevel);
+    List<CustomerSuggestion> suggestByPhone(String phonePrefix, Integer limit);
 
     /**
      * 根据ID查询客户
@@ -49,4 +64,9 @@ public interface CustomerService {
      * 获取余额变动历史
      */
     com.petshop.backend.dto.PageResult<BalanceTransaction> getBalanceHistory(Long id, Integer page, Integer pageSize);
+
+    /**
+     * 游标分页获取余额变动历史，cursor 为空时查询第一页
+     */
+    com.petshop.backend.dto.PageResult<BalanceTransaction> getBalanceHistoryByCursor(Long id, String cursor, Integer pageSize);
 }
@@ -0,0 +1,20 @@
+package com.petshop.backend.service;
+
+import java.util.function.Supplier;
+
+/**
+ * 请求幂等服务接口
+ * 同一个 Idempotency-Key 只执行一次写操作，重试直接返回首次执行结果
+ */
+public interface IdempotencyService {
+
+    /**
+     * 按幂等键执行操作
+     *
+     * @param scope          作用域（如接口路径），不同作用域的同名键互不影响
+     * @param idempotencyKey 客户端提供的幂等键，为空时直接执行
+     * @param resultType     结果类型，用于从持久化记录中还原结果
+     * @param action         实际的写操作
+     */
+    <T> T execute(String scope, String idempotencyKey, Class<T> resultType, Supplier<T> action);
+}
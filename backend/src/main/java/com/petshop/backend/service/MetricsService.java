@@ -0,0 +1,16 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.MetricSnapshot;
+
+import java.util.List;
+
+/**
+ * 监控指标查询服务接口
+ */
+public interface MetricsService {
+
+    /**
+     * 按名称前缀查询指标，前缀为空时返回全部
+     */
+    List<MetricSnapshot> findByPrefix(String prefix);
+}
@@ -0,0 +1,33 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.entity.Product;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 商品缓存服务接口
+ * 按ID缓存商品，未命中时从数据库读取并放入缓存；商品写入后由调用方使缓存失效。
+ * 缓存中的库存不保证最新，需要准确库存时以数据库或库存预占计数为准
+ */
+public interface ProductCacheService {
+
+    /**
+     * 查询商品
+     *
+     * @return 商品副本，不存在返回 null
+     */
+    Product get(Long id);
+
+    /**
+     * 批量查询商品，未命中的商品用一次查询加载
+     *
+     * @return 商品ID -> 商品副本，不存在的商品不在结果中
+     */
+    Map<Long, Product> getAll(Collection<Long> ids);
+
+    /**
+     * 使商品缓存失效（在事务中调用时提交后再失效一次）
+     */
+    void evict(Long id);
+}
@@ -0,0 +1,39 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.entity.Product;
+
+import java.util.List;
+
+/**
+ * 商品搜索服务接口
+ * 内存中维护全部商品及其拼音，支持子串、拼音全拼/首字母和错字匹配，供收银台选商品时逐字搜索
+ */
+public interface ProductSearchService {
+
+    /**
+     * 搜索商品，按匹配程度排序
+     *
+     * @param keyword 关键字（汉字、拼音全拼或首字母）
+     * @param limit 最多返回条数
+     * @return 商品副本，库存为当前可用库存
+     */
+    List<Product> search(String keyword, Integer limit);
+
+    /**
+     * 按条码查询商品（扫码枪录入），条码不区分大小写
+     *
+     * @param barcode 条码
+     * @return 商品副本，库存为当前可用库存
+     */
+    Product findByBarcode(String barcode);
+
+    /**
+     * 商品创建、更新或改库存后更新索引（在事务中调用时提交后生效）
+     */
+    void onSaved(Product product);
+
+    /**
+     * 商品删除后移除索引（在事务中调用时提交后生效）
+     */
+    void onDeleted(Long id);
+}
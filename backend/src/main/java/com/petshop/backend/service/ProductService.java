@@ -1,6 +1,9 @@
 package com.petshop.backend.service;
 
 import com.petshop.backend.entity.Product;
+import com.petshop.backend.enums.TotalMode;
+
+import java.util.Map;
 
 /**
  * 商品服务接口
@@ -8,9 +11,11 @@ import com.petshop.backend.entity.Product;
 public interface ProductService {
 
     /**
-     * 分页查询商品列表
+     * 分页查询商品列表，总数按 totalMode 返回（精确/允许近似/不返回）
+     *
+     * @param fields 逗号分隔的返回字段或 summary（不含描述），为空返回全部字段
      */
-    com.petshop.backend.dto.PageResult<Product> findByPage(Integer page, Integer pageSize, String search);
+    com.petshop.backend.dto.PageResult<Product> findByPage(Integer page, Integer pageSize, String search, String fields, TotalMode totalMode);
 
     /**
      * 根据ID查询商品
@@ -32,6 +37,13 @@ public interface ProductService {
      */
     void updateStock(Long id, Integer stock);
 
+    /**
+     * 批量设置商品条码，条码为空表示清除
+     *
+     * @param barcodes 商品ID -> 条码
+     */
+    void assignBarcodes(Map<Long, String> barcodes);
+
     /**
      * 删除商品
      */
@@ -0,0 +1,22 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.GroupCommitStats;
+import com.petshop.backend.dto.SaleCreateRequest;
+import com.petshop.backend.dto.SaleResponse;
+
+/**
+ * 销售批量提交服务接口
+ * 启用后把短时间内到达的开单请求合并到一个数据库事务中提交
+ */
+public interface SaleGroupCommitService {
+
+    /**
+     * 创建销售记录，未启用批量提交时直接调用 SaleService；数据库不可用时转入本地暂存
+     */
+    SaleResponse createSale(SaleCreateRequest request, Long operatorId);
+
+    /**
+     * 获取批量提交统计
+     */
+    GroupCommitStats getStats();
+}
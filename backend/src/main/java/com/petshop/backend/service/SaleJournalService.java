@@ -0,0 +1,51 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.dto.SaleCreateRequest;
+import com.petshop.backend.dto.SaleResponse;
+import com.petshop.backend.dto.SaleJournalStatus;
+import com.petshop.backend.entity.SaleJournalConflict;
+
+import java.util.List;
+
+/**
+ * 开单本地暂存服务接口
+ * 数据库不可用时开单请求先写入本地日志文件，恢复后按写入顺序补录
+ */
+public interface SaleJournalService {
+
+    /**
+     * 是否有待补录的开单；有则新开单也需暂存，保证补录顺序
+     */
+    boolean hasPending();
+
+    /**
+     * 判断异常是否由数据库不可用且开单尚未写入引起（获取连接、开启事务时失败）；
+     * 执行语句或提交时连接中断的开单可能已提交，不属于此类
+     */
+    boolean isDatabaseUnavailable(Throwable e);
+
+    /**
+     * 暂存开单请求，返回不含销售ID的临时结果
+     */
+    SaleResponse append(SaleCreateRequest request, Long operatorId);
+
+    /**
+     * 按顺序补录暂存的开单，数据库仍不可用时停止，返回本次补录数
+     */
+    int replay();
+
+    /**
+     * 获取暂存状态
+     */
+    SaleJournalStatus getStatus();
+
+    /**
+     * 获取补录冲突列表
+     */
+    List<SaleJournalConflict> findConflicts();
+
+    /**
+     * 删除已处理的补录冲突
+     */
+    void resolveConflict(Long id);
+}
@@ -4,6 +4,8 @@ import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.SaleCreateRequest;
 import com.petshop.backend.dto.SaleResponse;
 import com.petshop.backend.entity.Sale;
+import com.petshop.backend.enums.SaleItemsMode;
+import com.petshop.backend.enums.TotalMode;
 
 /**
  * 商品销售服务接口
@@ -16,9 +18,22 @@ public interface SaleService {
     SaleResponse createSale(SaleCreateRequest request, Long operatorId);
 
     /**
-     * 分页查询销售记录
+     * 创建销售记录并保存本地暂存键（补录暂存的开单时使用）
+     *
+     * @param journalKey 暂存键，为 null 时与 {@link #createSale(SaleCreateRequest, Long)} 相同
      */
-    PageResult<Sale> findByPage(Integer page, Integer pageSize, String startDate, String endDate);
+    SaleResponse createSale(SaleCreateRequest request, Long operatorId, String journalKey);
+
+    /**
+     * 分页查询销售记录，总数按 totalMode 返回（精确/允许近似/不返回），明细按 itemsMode 返回
+     */
+    PageResult<Sale> findByPage(Integer page, Integer pageSize, String startDate, String endDate,
+                                SaleItemsMode itemsMode, TotalMode totalMode);
+
+    /**
+     * 游标分页查询销售记录，cursor 为空时查询第一页，明细按 itemsMode 返回
+     */
+    PageResult<Sale> findByCursor(String cursor, Integer pageSize, String startDate, String endDate, SaleItemsMode itemsMode);
 
     /**
      * 根据ID查询销售记录
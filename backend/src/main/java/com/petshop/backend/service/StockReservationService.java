@@ -0,0 +1,51 @@
+package com.petshop.backend.service;
+
+import java.util.Map;
+
+/**
+ * 库存预占服务接口
+ * 在内存中维护每个商品的可用库存计数，结账时先预占，数据库扣减仍然是最终依据
+ */
+public interface StockReservationService {
+
+    /**
+     * 为当前事务预占库存，事务回滚时自动释放
+     *
+     * @param quantities 商品ID -> 数量
+     * @return 预占句柄，可在回滚到保存点等场景下提前释放
+     */
+    Reservation reserve(Map<Long, Integer> quantities);
+
+    /**
+     * 商品库存被直接修改后同步计数
+     */
+    void resync(Long productId, String productName, Integer stock);
+
+    /**
+     * 商品删除后移除计数
+     */
+    void remove(Long productId);
+
+    /**
+     * 查询内存中的可用库存（数据库库存减去未提交的预占）
+     *
+     * @return 可用库存，未启用或商品尚未加载时返回 null
+     */
+    Integer getAvailable(Long productId);
+
+    /**
+     * 按数据库库存校准所有计数
+     */
+    void reconcile();
+
+    /**
+     * 库存预占句柄
+     */
+    interface Reservation {
+
+        /**
+         * 立即释放预占，重复调用或事务结束后调用无副作用
+         */
+        void release();
+    }
+}
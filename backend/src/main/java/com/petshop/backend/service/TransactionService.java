@@ -3,6 +3,7 @@ package com.petshop.backend.service;
 import com.petshop.backend.dto.MonthlyStatistics;
 import com.petshop.backend.dto.TransactionStatistics;
 import com.petshop.backend.entity.Transaction;
+import com.petshop.backend.enums.TotalMode;
 
 import java.util.List;
 
@@ -12,9 +13,14 @@ import java.util.List;
 public interface TransactionService {
 
     /**
-     * 分页查询财务记录列表
+     * 分页查询财务记录列表，总数按 totalMode 返回（精确/允许近似/不返回）
      */
-    com.petshop.backend.dto.PageResult<Transaction> findByPage(Integer page, Integer pageSize, String type, String startDate, String endDate, String search);
+    com.petshop.backend.dto.PageResult<Transaction> findByPage(Integer page, Integer pageSize, String type, String startDate, String endDate, String search, TotalMode totalMode);
+
+    /**
+     * 游标分页查询财务记录列表，cursor 为空时查询第一页
+     */
+    com.petshop.backend.dto.PageResult<Transaction> findByCursor(String cursor, Integer pageSize, String type, String startDate, String endDate, String search);
 
     /**
      * 根据ID查询财务记录
@@ -0,0 +1,33 @@
+package com.petshop.backend.service;
+
+import com.petshop.backend.entity.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户目录服务接口
+ * 按ID在内存中缓存用户（不含密码），供当前用户信息和操作人名称使用；
+ * 用户修改、删除后由调用方使缓存失效
+ */
+public interface UserDirectoryService {
+
+    /**
+     * 查询用户
+     *
+     * @return 用户副本（不含密码），不存在返回 null
+     */
+    User get(Long id);
+
+    /**
+     * 批量查询显示名称（昵称为空时为用户名）
+     *
+     * @return 用户ID -> 显示名称，不存在的用户不在结果中
+     */
+    Map<Long, String> getDisplayNames(Collection<Long> ids);
+
+    /**
+     * 使用户缓存失效（在事务中调用时提交后再失效一次）
+     */
+    void evict(Long id);
+}
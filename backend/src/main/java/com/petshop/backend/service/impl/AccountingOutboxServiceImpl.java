@@ -0,0 +1,157 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.dto.OutboxStatus;
+import com.petshop.backend.entity.AccountingOutbox;
+import com.petshop.backend.entity.Sale;
+import com.petshop.backend.entity.SaleItem;
+import com.petshop.backend.entity.Transaction;
+import com.petshop.backend.mapper.AccountingOutboxMapper;
+import com.petshop.backend.mapper.SaleMapper;
+import com.petshop.backend.mapper.TransactionMapper;
+import com.petshop.backend.service.AccountingOutboxService;
+import com.petshop.backend.util.CountCache;
+import com.petshop.backend.util.StatisticsCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 财务记账同步服务实现类
+ * 至少一次投递：待同步记录与生成的财务记录在同一事务中删除/写入，
+ * 已关联财务记录的销售会被跳过，重复处理不会重复记账
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountingOutboxServiceImpl implements AccountingOutboxService {
+
+    private final AccountingOutboxMapper accountingOutboxMapper;
+    private final SaleMapper saleMapper;
+    private final TransactionMapper transactionMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final CountCache countCache;
+    private final StatisticsCache statisticsCache;
+
+    @Value("${accounting.outbox.batch-size:100}")
+    private int batchSize;
+
+    private final AtomicLong synced = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void enqueue(Long saleId) {
+        accountingOutboxMapper.insert(saleId);
+    }
+
+    /**
+     * 定时处理待同步记录，积压时连续处理直到清空
+     */
+    @Scheduled(fixedDelayString = "${accounting.outbox.poll-interval:1000}")
+    public void drain() {
+        try {
+            while (drainBatch() >= batchSize) {
+                // 继续处理下一批
+            }
+            lastRunAt = LocalDateTime.now();
+        } catch (Exception e) {
+            log.error("财务记账同步失败，将在下次调度时重试: ", e);
+        }
+    }
+
+    @Override
+    public int drainBatch() {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<AccountingOutbox> entries = accountingOutboxMapper.lockPending(batchSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> ids = new ArrayList<>(entries.size());
+            List<Long> saleIds = new ArrayList<>(entries.size());
+            List<String> dates = new ArrayList<>();
+            for (AccountingOutbox entry : entries) {
+                ids.add(entry.getId());
+                saleIds.add(entry.getSaleId());
+            }
+
+            for (Sale sale : saleMapper.findWithItemsByIds(saleIds)) {
+                // 幂等：已关联财务记录的销售不再重复记账
+                if (sale.getTransactionId() != null) {
+                    continue;
+                }
+                Transaction transaction = new Transaction();
+                transaction.setType("income");
+                transaction.setAmount(sale.getTotalAmount());
+                transaction.setDescription(buildTransactionDescription(sale));
+                transaction.setDate(sale.getSaleDate());
+                transactionMapper.insert(transaction);
+
+                saleMapper.updateTransactionId(sale.getId(), transaction.getId());
+                countCache.invalidate("transactions");
+                dates.add(transaction.getDate());
+            }
+            if (!dates.isEmpty()) {
+                statisticsCache.invalidate(dates);
+            }
+
+            // 已删除的销售直接丢弃对应的待同步记录
+            accountingOutboxMapper.deleteByIds(ids);
+            return entries.size();
+        });
+
+        int count = processed != null ? processed : 0;
+        synced.addAndGet(count);
+        return count;
+    }
+
+    @Override
+    public OutboxStatus getStatus() {
+        Long pending = accountingOutboxMapper.countPending();
+        LocalDateTime oldest = accountingOutboxMapper.findOldestCreatedAt();
+        long lagSeconds = oldest != null
+                ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds())
+                : 0;
+        return new OutboxStatus(pending, oldest, lagSeconds, synced.get(), lastRunAt);
+    }
+
+    /**
+     * 生成财务记录描述，格式: 客户-商品名 单价x数量 + ... = 总价元
+     */
+    private String buildTransactionDescription(Sale sale) {
+        StringBuilder desc = new StringBuilder();
+        desc.append(sale.getCustomerName()).append("-");
+
+        // 拼接商品信息
+        List<SaleItem> items = sale.getItems() != null ? sale.getItems() : List.of();
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) desc.append(" + ");
+            SaleItem item = items.get(i);
+            // 格式: 商品名 单价x数量
+            desc.append(item.getProductName())
+                .append(" ").append(String.format("%.2f", item.getUnitPrice() / 100.0))
+                .append("x").append(item.getQuantity());
+        }
+
+        // 拼接总金额
+        desc.append(" = ").append(String.format("%.2f", sale.getTotalAmount() / 100.0)).append("元");
+
+        return desc.toString();
+    }
+}
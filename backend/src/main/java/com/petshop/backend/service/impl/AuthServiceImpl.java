@@ -7,6 +7,7 @@ import com.petshop.backend.enums.Role;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.UserMapper;
 import com.petshop.backend.service.AuthService;
+import com.petshop.backend.service.UserDirectoryService;
 import com.petshop.backend.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,7 @@ public class AuthServiceImpl implements AuthService {
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
     private final JwtConfig jwtConfig;
+    private final UserDirectoryService userDirectoryService;
 
     @Override
     public LoginResponse login(String username) {
@@ -46,11 +48,11 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public User getCurrentUser(Long userId) {
-        User user = userMapper.findById(userId);
+        // 前端每次加载页面都会调用，从用户目录读取（已不含密码）
+        User user = userDirectoryService.get(userId);
         if (user == null) {
             throw new BusinessException(2001, "用户不存在");
         }
-        user.setPassword(null);
         return user;
     }
 
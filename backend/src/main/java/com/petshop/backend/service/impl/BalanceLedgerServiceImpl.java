@@ -0,0 +1,53 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.dto.BalanceChange;
+import com.petshop.backend.entity.BalanceTransaction;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.mapper.BalanceTransactionMapper;
+import com.petshop.backend.mapper.CustomerMapper;
+import com.petshop.backend.service.BalanceLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 会员余额账本服务实现类
+ * 余额在一条带条件的UPDATE中完成增减并返回变动后余额，不再先查后写，并发操作同一会员不会丢失更新
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceLedgerServiceImpl implements BalanceLedgerService {
+
+    private final CustomerMapper customerMapper;
+    private final BalanceTransactionMapper balanceTransactionMapper;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public BalanceTransaction apply(Long customerId, BalanceTransaction.TransactionType type,
+                                    Long amount, String description, Long operatorId) {
+        long delta = type == BalanceTransaction.TransactionType.DEDUCT ? -amount : amount;
+
+        BalanceChange change = new BalanceChange(customerId, delta);
+        if (customerMapper.applyBalanceChange(change) == 0) {
+            // 仅在失败路径上区分客户不存在和余额不足
+            if (customerMapper.findById(customerId) == null) {
+                throw new BusinessException(4001, "客户不存在");
+            }
+            throw new BusinessException(4002, "余额不足");
+        }
+        long balanceAfter = change.getLastInsertId() - 1;
+
+        // 记录余额变动历史
+        BalanceTransaction transaction = new BalanceTransaction();
+        transaction.setCustomerId(customerId);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setBalanceBefore(balanceAfter - delta);
+        transaction.setBalanceAfter(balanceAfter);
+        transaction.setDescription(description);
+        transaction.setOperatorId(operatorId);
+        balanceTransactionMapper.insert(transaction);
+
+        return transaction;
+    }
+}
@@ -0,0 +1,791 @@
+package com.petshop.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.backend.dto.BatchRequest;
+import com.petshop.backend.dto.BatchResponse;
+import com.petshop.backend.dto.Result;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.interceptor.JwtInterceptor;
+import com.petshop.backend.service.BatchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量请求服务实现类
+ * 子请求不经过 Servlet 容器，直接交给 Spring MVC 的处理器映射和适配器执行：
+ * 批量请求已通过 JWT 认证，子请求沿用其用户信息，跳过 JwtInterceptor，其余拦截器（如角色校验）照常执行；
+ * 异常由全局异常处理器转换为统一响应格式。子请求使用独立的请求/响应对象，可以在线程池中并发执行
+ */
+@Slf4j
+@Service
+public class BatchServiceImpl implements BatchService {
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    /**
+     * 不允许放入批量请求的路径（嵌套批量请求、文件上传）
+     */
+    private static final List<String> FORBIDDEN_PATHS = List.of("/batch", "/upload");
+
+    /**
+     * 不从子请求传入的请求头
+     */
+    private static final Set<String> IGNORED_HEADERS = Set.of("authorization", "host", "content-length", "content-type", "origin");
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final ObjectMapper objectMapper;
+
+    @Value("${batch.max-requests:20}")
+    private int maxRequests;
+
+    @Value("${batch.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${batch.pool-size:16}")
+    private int poolSize;
+
+    private ThreadPoolExecutor executor;
+
+    public BatchServiceImpl(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                            RequestMappingHandlerAdapter handlerAdapter,
+                            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                            ObjectMapper objectMapper) {
+        this.handlerMapping = handlerMapping;
+        this.handlerAdapter = handlerAdapter;
+        this.exceptionResolver = exceptionResolver;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        // 线程全部占用时由请求线程自己执行，不排队
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public List<BatchResponse> execute(List<BatchRequest.Item> items, HttpServletRequest request,
+                                       HttpServletResponse response) {
+        if (items.size() > maxRequests) {
+            throw new BusinessException(1001, "每批最多" + maxRequests + "个子请求");
+        }
+
+        Origin origin = Origin.of(request);
+        List<SubRequest> subRequests = new ArrayList<>(items.size());
+        for (BatchRequest.Item item : items) {
+            subRequests.add(prepare(item, origin));
+        }
+
+        BatchResponse[] results = new BatchResponse[subRequests.size()];
+        boolean readOnly = subRequests.stream().allMatch(sub -> sub.method.equals("GET"));
+        if (!readOnly) {
+            // 含写请求时按顺序执行，后面的请求能看到前面写入的结果
+            runLane(subRequests, results, 0, 1, request, response);
+            return List.of(results);
+        }
+
+        // 只读请求分成若干组，第一组在当前线程执行，其余组提交到线程池
+        int lanes = Math.min(maxConcurrency, subRequests.size());
+        List<Future<?>> futures = new ArrayList<>(lanes - 1);
+        for (int lane = 1; lane < lanes; lane++) {
+            int start = lane;
+            futures.add(executor.submit(() -> runLane(subRequests, results, start, lanes, request, response)));
+        }
+        runLane(subRequests, results, 0, lanes, request, response);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(503, "批量请求被中断");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("批量子请求执行失败", e.getCause());
+            }
+        }
+        return List.of(results);
+    }
+
+    private void runLane(List<SubRequest> subRequests, BatchResponse[] results, int start, int step,
+                         HttpServletRequest request, HttpServletResponse response) {
+        for (int i = start; i < subRequests.size(); i += step) {
+            results[i] = dispatch(subRequests.get(i), request, response);
+        }
+    }
+
+    /**
+     * 校验子请求并解析路径、参数、请求头和请求体
+     */
+    private SubRequest prepare(BatchRequest.Item item, Origin origin) {
+        String method = item.getMethod().trim().toUpperCase(Locale.ROOT);
+        if (!METHODS.contains(method)) {
+            throw new BusinessException(1001, "不支持的请求方法: " + item.getMethod());
+        }
+
+        UriComponents uri = UriComponentsBuilder.fromUriString(item.getPath().trim()).build();
+        String path = uri.getPath();
+        if (path == null || !path.startsWith("/") || path.contains("..") || path.contains("//")) {
+            throw new BusinessException(1001, "接口路径不合法: " + item.getPath());
+        }
+        if (!origin.contextPath.isEmpty() && path.startsWith(origin.contextPath + "/")) {
+            path = path.substring(origin.contextPath.length());
+        }
+        for (String forbidden : FORBIDDEN_PATHS) {
+            if (path.equals(forbidden) || path.startsWith(forbidden + "/")) {
+                throw new BusinessException(1001, "接口不支持批量调用: " + path);
+            }
+        }
+
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        MultiValueMap<String, String> queryParams = uri.getQueryParams();
+        queryParams.forEach((name, values) -> {
+            for (String value : values) {
+                params.computeIfAbsent(UriUtils.decode(name, StandardCharsets.UTF_8), key -> new ArrayList<>())
+                        .add(value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "");
+            }
+        });
+        if (item.getParams() != null) {
+            item.getParams().forEach((name, value) -> {
+                if (value instanceof Collection<?> values) {
+                    values.forEach(v -> params.computeIfAbsent(name, key -> new ArrayList<>()).add(String.valueOf(v)));
+                } else if (value != null) {
+                    params.computeIfAbsent(name, key -> new ArrayList<>()).add(String.valueOf(value));
+                }
+            });
+        }
+
+        Map<String, String> headers = new LinkedCaseInsensitiveMap<>();
+        if (item.getHeaders() != null) {
+            item.getHeaders().forEach((name, value) -> {
+                if (value != null && !IGNORED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.put(name, value);
+                }
+            });
+        }
+        headers.putIfAbsent("Accept", MediaType.APPLICATION_JSON_VALUE);
+
+        byte[] body = null;
+        if (item.getBody() != null && !item.getBody().isNull()) {
+            try {
+                body = objectMapper.writeValueAsBytes(item.getBody());
+            } catch (JsonProcessingException e) {
+                throw new BusinessException(1001, "请求体格式错误");
+            }
+            headers.put("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        }
+
+        Map<String, String[]> parameterMap = new LinkedHashMap<>();
+        params.forEach((name, values) -> parameterMap.put(name, values.toArray(new String[0])));
+        return new SubRequest(method, path, Collections.unmodifiableMap(parameterMap), headers, body, origin);
+    }
+
+    /**
+     * 执行单个子请求，任何异常都转换为该子请求的错误响应
+     */
+    private BatchResponse dispatch(SubRequest sub, HttpServletRequest request, HttpServletResponse response) {
+        SubHttpRequest subRequest = new SubHttpRequest(request, sub);
+        SubHttpResponse subResponse = new SubHttpResponse(response);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(subRequest, subResponse));
+
+        HandlerExecutionChain chain = null;
+        List<HandlerInterceptor> passed = new ArrayList<>();
+        Exception failure = null;
+        try {
+            ServletRequestPathUtils.parseAndCache(subRequest);
+            chain = handlerMapping.getHandler(subRequest);
+            if (chain == null) {
+                return error(404, 404, "接口不存在: " + sub.method + " " + sub.path);
+            }
+
+            boolean proceed = true;
+            for (HandlerInterceptor interceptor : chain.getInterceptorList()) {
+                // 批量请求本身已完成认证
+                if (interceptor instanceof JwtInterceptor) {
+                    continue;
+                }
+                if (!interceptor.preHandle(subRequest, subResponse, chain.getHandler())) {
+                    proceed = false;
+                    break;
+                }
+                passed.add(interceptor);
+            }
+            if (proceed) {
+                handlerAdapter.handle(subRequest, subResponse, chain.getHandler());
+            }
+        } catch (Exception e) {
+            failure = e;
+            Object handler = chain != null ? chain.getHandler() : null;
+            subResponse.resetBuffer();
+            if (exceptionResolver.resolveException(subRequest, subResponse, handler, e) == null) {
+                log.error("批量子请求异常: {} {}", sub.method, sub.path, e);
+                return error(500, 500, "系统内部错误");
+            }
+        } finally {
+            for (int i = passed.size() - 1; i >= 0; i--) {
+                try {
+                    passed.get(i).afterCompletion(subRequest, subResponse, chain.getHandler(), failure);
+                } catch (Exception e) {
+                    log.warn("批量子请求拦截器 afterCompletion 异常: {}", e.getMessage());
+                }
+            }
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        String body = subResponse.getBody();
+        return new BatchResponse(subResponse.getStatus(), body.isEmpty() ? null : body);
+    }
+
+    private BatchResponse error(int status, int code, String message) {
+        try {
+            return new BatchResponse(status, objectMapper.writeValueAsString(Result.error(code, message)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 批量请求本身的信息，在请求线程中读取，子请求线程不再访问容器的请求对象
+     */
+    private record Origin(String contextPath, HttpServletMapping mapping, Locale locale, String scheme,
+                          String serverName, int serverPort, String remoteAddr, Map<String, Object> attributes) {
+
+        /**
+         * 子请求沿用的请求属性（JwtInterceptor 写入的用户信息）
+         */
+        private static final List<String> INHERITED_ATTRIBUTES = List.of("userId", "userRole");
+
+        static Origin of(HttpServletRequest request) {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            for (String name : INHERITED_ATTRIBUTES) {
+                Object value = request.getAttribute(name);
+                if (value != null) {
+                    attributes.put(name, value);
+                }
+            }
+            return new Origin(request.getContextPath(), request.getHttpServletMapping(), request.getLocale(),
+                    request.getScheme(), request.getServerName(), request.getServerPort(), request.getRemoteAddr(),
+                    attributes);
+        }
+    }
+
+    private record SubRequest(String method, String path, Map<String, String[]> parameters,
+                              Map<String, String> headers, byte[] body, Origin origin) {
+    }
+
+    /**
+     * 子请求对象：路径、参数、请求头、请求体和属性都是子请求自己的
+     */
+    private static class SubHttpRequest extends HttpServletRequestWrapper {
+
+        private final SubRequest sub;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private ServletInputStream inputStream;
+
+        SubHttpRequest(HttpServletRequest request, SubRequest sub) {
+            super(request);
+            this.sub = sub;
+            attributes.putAll(sub.origin.attributes);
+        }
+
+        @Override
+        public String getMethod() {
+            return sub.method;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return sub.origin.contextPath + sub.path;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            return new StringBuffer(sub.origin.scheme).append("://").append(sub.origin.serverName)
+                    .append(':').append(sub.origin.serverPort).append(getRequestURI());
+        }
+
+        @Override
+        public String getContextPath() {
+            return sub.origin.contextPath;
+        }
+
+        @Override
+        public String getServletPath() {
+            return sub.path;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public HttpServletMapping getHttpServletMapping() {
+            return sub.origin.mapping;
+        }
+
+        @Override
+        public String getQueryString() {
+            if (sub.parameters.isEmpty()) {
+                return null;
+            }
+            StringBuilder query = new StringBuilder();
+            sub.parameters.forEach((name, values) -> {
+                for (String value : values) {
+                    if (!query.isEmpty()) {
+                        query.append('&');
+                    }
+                    query.append(UriUtils.encodeQueryParam(name, StandardCharsets.UTF_8)).append('=')
+                            .append(UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
+                }
+            });
+            return query.toString();
+        }
+
+        @Override
+        public DispatcherType getDispatcherType() {
+            return DispatcherType.REQUEST;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return false;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return sub.origin.locale;
+        }
+
+        @Override
+        public Enumeration<Locale> getLocales() {
+            return Collections.enumeration(List.of(sub.origin.locale));
+        }
+
+        @Override
+        public String getScheme() {
+            return sub.origin.scheme;
+        }
+
+        @Override
+        public String getServerName() {
+            return sub.origin.serverName;
+        }
+
+        @Override
+        public int getServerPort() {
+            return sub.origin.serverPort;
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return sub.origin.remoteAddr;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = sub.parameters.get(name);
+            return values != null && values.length > 0 ? values[0] : null;
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return sub.parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(sub.parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return sub.parameters.get(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return sub.headers.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            String value = sub.headers.get(name);
+            return Collections.enumeration(value != null ? List.of(value) : List.of());
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(sub.headers.keySet());
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            String value = sub.headers.get(name);
+            return value != null ? Integer.parseInt(value) : -1;
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return -1;
+        }
+
+        @Override
+        public String getContentType() {
+            return sub.headers.get("Content-Type");
+        }
+
+        @Override
+        public int getContentLength() {
+            return sub.body != null ? sub.body.length : -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return getContentLength();
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return StandardCharsets.UTF_8.name();
+        }
+
+        @Override
+        public void setCharacterEncoding(String encoding) {
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            if (inputStream == null) {
+                ByteArrayInputStream body = new ByteArrayInputStream(sub.body != null ? sub.body : new byte[0]);
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() {
+                        return body.read();
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) {
+                        return body.read(buffer, offset, length);
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return body.available() == 0;
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+        }
+    }
+
+    /**
+     * 子响应对象：状态码、响应头和响应体写入内存，不影响批量请求本身的响应
+     */
+    private static class SubHttpResponse extends HttpServletResponseWrapper {
+
+        private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                buffer.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                buffer.write(bytes, offset, length);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        private PrintWriter writer;
+        private int status = SC_OK;
+        private String contentType;
+        private String characterEncoding = StandardCharsets.UTF_8.name();
+
+        SubHttpResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        String getBody() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void sendError(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendError(int status, String message) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendRedirect(String location) {
+            this.status = SC_FOUND;
+            setHeader("Location", location);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            List<String> values = new ArrayList<>();
+            values.add(value);
+            headers.put(name, values);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            headers.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            setHeader(name, String.valueOf(value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            addHeader(name, String.valueOf(value));
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            setHeader(name, String.valueOf(date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            addHeader(name, String.valueOf(date));
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return headers.containsKey(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            List<String> values = headers.get(name);
+            return values != null && !values.isEmpty() ? values.get(0) : null;
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            return headers.getOrDefault(name, List.of());
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return headers.keySet();
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void setCharacterEncoding(String characterEncoding) {
+            this.characterEncoding = characterEncoding;
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return characterEncoding;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setBufferSize(int size) {
+        }
+
+        @Override
+        public int getBufferSize() {
+            return buffer.size();
+        }
+
+        @Override
+        public void flushBuffer() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (writer != null) {
+                writer.flush();
+            }
+            buffer.reset();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            headers.clear();
+            status = SC_OK;
+            contentType = null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.dto.StageLatency;
+import com.petshop.backend.enums.CheckoutStage;
+import com.petshop.backend.service.CheckoutMetricsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开单分阶段耗时统计服务实现类
+ * 每个 阶段 x 购物车大小 x 余额 x 记账 组合对应一个带百分位直方图的 Timer，
+ * 按 [阶段][组合] 预先存入数组
+ */
+@Service
+@RequiredArgsConstructor
+public class CheckoutMetricsServiceImpl implements CheckoutMetricsService {
+
+    private static final String METRIC_NAME = "checkout.stage";
+    private static final String[] BASKET_SIZES = {"1", "2-5", "6-10", "11+"};
+    private static final int PROFILES = BASKET_SIZES.length * 4;
+
+    private final MeterRegistry meterRegistry;
+
+    private Timer[][] timers;
+
+    @PostConstruct
+    public void init() {
+        CheckoutStage[] stages = CheckoutStage.values();
+        timers = new Timer[stages.length][PROFILES];
+        for (CheckoutStage stage : stages) {
+            for (int profile = 0; profile < PROFILES; profile++) {
+                timers[stage.ordinal()][profile] = Timer.builder(METRIC_NAME)
+                        .description("开单各阶段耗时")
+                        .tag("stage", stage.getTag())
+                        .tag("basket", BASKET_SIZES[basketIndex(profile)])
+                        .tag("balance", String.valueOf(isBalance(profile)))
+                        .tag("accounting", String.valueOf(isAccounting(profile)))
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Override
+    public int profile(int basketSize, boolean useBalance, boolean recordToAccounting) {
+        int basket = basketSize <= 1 ? 0 : basketSize <= 5 ? 1 : basketSize <= 10 ? 2 : 3;
+        return basket * 4 + (useBalance ? 2 : 0) + (recordToAccounting ? 1 : 0);
+    }
+
+    @Override
+    public long record(CheckoutStage stage, int profile, long startNanos) {
+        long now = System.nanoTime();
+        timers[stage.ordinal()][profile].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    @Override
+    public List<StageLatency> getStageLatencies() {
+        List<StageLatency> result = new ArrayList<>();
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            for (int profile = 0; profile < PROFILES; profile++) {
+                Timer timer = timers[stage.ordinal()][profile];
+                if (timer.count() == 0) {
+                    continue;
+                }
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                StageLatency latency = new StageLatency();
+                latency.setStage(stage.getTag());
+                latency.setBasketSize(BASKET_SIZES[basketIndex(profile)]);
+                latency.setBalance(isBalance(profile));
+                latency.setAccounting(isAccounting(profile));
+                latency.setCount(snapshot.count());
+                latency.setMean(snapshot.mean(TimeUnit.MILLISECONDS));
+                latency.setMax(snapshot.max(TimeUnit.MILLISECONDS));
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    double value = percentile.value(TimeUnit.MILLISECONDS);
+                    if (percentile.percentile() == 0.5) {
+                        latency.setP50(value);
+                    } else if (percentile.percentile() == 0.95) {
+                        latency.setP95(value);
+                    } else if (percentile.percentile() == 0.99) {
+                        latency.setP99(value);
+                    }
+                }
+                result.add(latency);
+            }
+        }
+        return result;
+    }
+
+    private static int basketIndex(int profile) {
+        return profile / 4;
+    }
+
+    private static boolean isBalance(int profile) {
+        return (profile & 2) != 0;
+    }
+
+    private static boolean isAccounting(int profile) {
+        return (profile & 1) != 0;
+    }
+}
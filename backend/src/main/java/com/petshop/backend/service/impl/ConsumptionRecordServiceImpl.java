@@ -7,6 +7,7 @@ import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.ConsumptionRecordMapper;
 import com.petshop.backend.mapper.CustomerMapper;
 import com.petshop.backend.service.ConsumptionRecordService;
+import com.petshop.backend.util.CursorUtil;
 import com.petshop.backend.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -41,6 +42,20 @@ public class ConsumptionRecordServiceImpl implements ConsumptionRecordService {
         return new PageResult<>(list, total, page, pageSize);
     }
 
+    @Override
+    public PageResult<ConsumptionRecord> findByCustomerIdAndCursor(Long customerId, String cursor, Integer pageSize, String startDate, String endDate) {
+        // 检查客户是否存在
+        if (customerMapper.findById(customerId) == null) {
+            throw new BusinessException(4001, "客户不存在");
+        }
+
+        CursorUtil.Cursor position = CursorUtil.decode(cursor);
+        List<ConsumptionRecord> rows = consumptionRecordMapper.findByCustomerIdAndCursor(customerId,
+                position != null ? position.key() : null, position != null ? position.id() : null,
+                pageSize + 1, startDate, endDate);
+        return CursorUtil.toPage(rows, pageSize, ConsumptionRecord::getDate, ConsumptionRecord::getId);
+    }
+
     @Override
     public ConsumptionRecord findById(Long id) {
         ConsumptionRecord record = consumptionRecordMapper.findById(id);
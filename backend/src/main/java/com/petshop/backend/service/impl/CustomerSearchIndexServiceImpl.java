@@ -0,0 +1,221 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.Customer;
+import com.petshop.backend.mapper.CustomerMapper;
+import com.petshop.backend.service.CustomerSearchIndexService;
+import com.petshop.backend.util.NgramIndex;
+import com.petshop.backend.util.PhonePrefixIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 客户搜索索引服务实现类
+ * 启动后在后台线程流式读取全部客户构建索引，构建期间发生变动的客户在构建完成后重新读取；
+ * 构建完成前（或数据库不可用导致构建失败时）搜索返回 null，客户列表回退到 LIKE 查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerSearchIndexServiceImpl implements CustomerSearchIndexService {
+
+    private final CustomerMapper customerMapper;
+
+    @Value("${customer.search-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.search-index.max-results:5000}")
+    private int maxResults;
+
+    @Value("${customer.search-index.retry-interval-ms:30000}")
+    private long retryIntervalMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 构建完成前为 null
+     */
+    private NgramIndex index;
+
+    /**
+     * 与 index 同时构建和更新
+     */
+    private PhonePrefixIndex phoneIndex;
+
+    /**
+     * 构建期间发生变动的客户ID
+     */
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    private Thread builder;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        builder = new Thread(this::buildUntilSuccess, "customer-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (builder != null) {
+            builder.interrupt();
+        }
+    }
+
+    @Override
+    public long[] search(String keyword) {
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return null;
+            }
+            ids = index.search(keyword, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids != null ? toLongs(ids) : null;
+    }
+
+    @Override
+    public long[] findByPhonePrefix(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return phoneIndex != null ? toLongs(phoneIndex.findByPrefix(prefix, limit)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(Customer customer) {
+        afterCommit(() -> put(customer));
+    }
+
+    @Override
+    public void onDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private void buildUntilSuccess() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                build();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("构建客户搜索索引失败，{} 毫秒后重试: {}", retryIntervalMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        changedDuringBuild.clear();
+        NgramIndex built = new NgramIndex();
+        PhonePrefixIndex.Builder phoneBuilder = new PhonePrefixIndex.Builder();
+        customerMapper.scanSearchFields(context -> {
+            Customer customer = context.getResultObject();
+            int id = Math.toIntExact(customer.getId());
+            built.put(id, customer.getPetName(), customer.getOwnerName(), customer.getPhone());
+            phoneBuilder.add(id, customer.getPhone());
+        });
+        PhonePrefixIndex builtPhones = phoneBuilder.build();
+
+        List<Long> changed;
+        lock.writeLock().lock();
+        try {
+            index = built;
+            phoneIndex = builtPhones;
+            changed = new ArrayList<>(changedDuringBuild);
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // 构建期间的变动可能未被读到，按数据库当前状态补齐
+        for (Long id : changed) {
+            Customer customer = customerMapper.findById(id);
+            if (customer != null) {
+                put(customer);
+            } else {
+                remove(id);
+            }
+        }
+        log.info("客户搜索索引构建完成: 客户数={}, 词项数={}, 手机号数={}, 耗时={}ms",
+                built.size(), built.termCount(), builtPhones.size(), System.currentTimeMillis() - start);
+    }
+
+    private void put(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                changedDuringBuild.add(customer.getId());
+                return;
+            }
+            int id = Math.toIntExact(customer.getId());
+            index.put(id, customer.getPetName(), customer.getOwnerName(), customer.getPhone());
+            phoneIndex.put(id, customer.getPhone());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                changedDuringBuild.add(id);
+                return;
+            }
+            index.remove(Math.toIntExact(id));
+            phoneIndex.remove(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] toLongs(int[] ids) {
+        long[] result = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = ids[i];
+        }
+        return result;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -2,19 +2,34 @@ package com.petshop.backend.service.impl;
 
 import com.petshop.backend.dto.BalanceDeductRequest;
 import com.petshop.backend.dto.BalanceRechargeRequest;
+import com.petshop.backend.dto.CustomerSuggestion;
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.entity.BalanceTransaction;
 import com.petshop.backend.entity.Customer;
+import com.petshop.backend.enums.TotalMode;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.BalanceTransactionMapper;
 import com.petshop.backend.mapper.CustomerMapper;
+import com.petshop.backend.service.BalanceLedgerService;
+import com.petshop.backend.service.CustomerSearchIndexService;
 import com.petshop.backend.service.CustomerService;
+import com.petshop.backend.service.UserDirectoryService;
+import com.petshop.backend.util.CountCache;
+import com.petshop.backend.util.CursorUtil;
+import com.petshop.backend.util.FieldSelector;
 import com.petshop.backend.util.PaginationUtil;
+import com.petshop.backend.util.PhonePrefixIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 客户服务实现类
@@ -23,19 +38,79 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final String COUNT_TABLE = "customers";
+    private static final int MAX_PHONE_DIGITS = 18;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final FieldSelector LIST_FIELDS = new FieldSelector(
+            List.of("id", "pet_name", "owner_name", "phone", "is_member", "member_level", "balance", "avatar",
+                    "pet_type", "breed", "age", "gender", "notes", "created_at", "updated_at"),
+            Set.of("notes"));
+    private static final DateTimeFormatter CURSOR_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final CustomerMapper customerMapper;
     private final BalanceTransactionMapper balanceTransactionMapper;
+    private final BalanceLedgerService balanceLedgerService;
+    private final CountCache countCache;
+    private final CustomerSearchIndexService customerSearchIndexService;
+    private final UserDirectoryService userDirectoryService;
 
     @Override
-    public PageResult<Customer> findByPage(Integer page, Integer pageSize, String search, Boolean isMember, Integer memberLevel) {
+    public PageResult<Customer> findByPage(Integer page, Integer pageSize, String search, Boolean isMember, Integer memberLevel,
+                                           String fields, TotalMode totalMode) {
         // 计算偏移量
         Integer offset = PaginationUtil.calculateOffset(page, pageSize);
+        List<String> columns = LIST_FIELDS.resolve(fields);
+
+        // 有搜索关键字时优先用内存索引确定候选客户，索引不适用时回退到 LIKE 查询
+        long[] ids = search != null && !search.isEmpty() ? customerSearchIndexService.search(search) : null;
+        String filter = CountCache.filter(search, isMember, memberLevel);
+        if (ids != null) {
+            List<Customer> list = ids.length > 0
+                    ? customerMapper.findByIdsPage(ids, offset, pageSize, isMember, memberLevel, columns)
+                    : new ArrayList<>();
+            CountCache.Total total = countCache.count(COUNT_TABLE, filter, totalMode,
+                    () -> ids.length > 0 ? customerMapper.countByIds(ids, isMember, memberLevel) : 0L);
+            return new PageResult<>(list, total.value(), total.exact(), page, pageSize, null);
+        }
 
         // 查询数据
-        List<Customer> list = customerMapper.findByPage(offset, pageSize, search, isMember, memberLevel);
-        Long total = customerMapper.countByCondition(search, isMember, memberLevel);
+        List<Customer> list = customerMapper.findByPage(offset, pageSize, search, isMember, memberLevel, columns);
+        CountCache.Total total = countCache.count(COUNT_TABLE, filter,
+                totalMode, () -> customerMapper.countByCondition(search, isMember, memberLevel));
 
-        return new PageResult<>(list, total, page, pageSize);
+        return new PageResult<>(list, total.value(), total.exact(), page, pageSize, null);
+    }
+
+    @Override
+    public List<CustomerSuggestion> suggestByPhone(String phonePrefix, Integer limit) {
+        if (phonePrefix == null || phonePrefix.isEmpty() || phonePrefix.length() > MAX_PHONE_DIGITS
+                || !PhonePrefixIndex.isDigits(phonePrefix)) {
+            throw new BusinessException(1001, "手机号只能输入1-" + MAX_PHONE_DIGITS + "位数字");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        long[] ids = customerSearchIndexService.findByPhonePrefix(phonePrefix, size);
+        if (ids == null) {
+            // 索引未就绪，前缀 LIKE 仍可使用 idx_phone
+            return customerMapper.findSuggestionsByPhonePrefix(phonePrefix, size);
+        }
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        // 按索引返回的号码顺序排列
+        Map<Long, CustomerSuggestion> byId = new HashMap<>();
+        for (CustomerSuggestion suggestion : customerMapper.findSuggestionsByIds(ids)) {
+            byId.put(suggestion.getId(), suggestion);
+        }
+        List<CustomerSuggestion> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            CustomerSuggestion suggestion = byId.get(id);
+            if (suggestion != null) {
+                result.add(suggestion);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -50,6 +125,8 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public Customer create(Customer customer) {
         customerMapper.insert(customer);
+        countCache.invalidate(COUNT_TABLE);
+        customerSearchIndexService.onSaved(customer);
         return customer;
     }
 
@@ -63,6 +140,8 @@ public class CustomerServiceImpl implements CustomerService {
 
         customer.setId(id);
         customerMapper.update(customer);
+        countCache.invalidate(COUNT_TABLE);
+        customerSearchIndexService.onSaved(customer);
         return customer;
     }
 
@@ -75,84 +154,38 @@ public class CustomerServiceImpl implements CustomerService {
         }
 
         customerMapper.deleteById(id);
+        countCache.invalidate(COUNT_TABLE);
+        customerSearchIndexService.onDeleted(id);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Customer recharge(Long id, BalanceRechargeRequest request, Long operatorId) {
-        // 检查客户是否存在
-        Customer customer = customerMapper.findById(id);
-        if (customer == null) {
-            throw new BusinessException(4001, "客户不存在");
-        }
-
         // 验证充值金额
         if (request.getAmount() == null || request.getAmount() <= 0) {
             throw new BusinessException(4003, "充值金额必须大于0");
         }
 
-        // 获取当前余额
-        Long balanceBefore = customer.getBalance() != null ? customer.getBalance() : 0L;
-        Long balanceAfter = balanceBefore + request.getAmount();
-
-        // 更新余额
-        customer.setBalance(balanceAfter);
-        customerMapper.updateBalance(id, balanceAfter);
-
-        // 记录余额变动历史
-        BalanceTransaction transaction = new BalanceTransaction();
-        transaction.setCustomerId(id);
-        transaction.setType(BalanceTransaction.TransactionType.RECHARGE);
-        transaction.setAmount(request.getAmount());
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setDescription(request.getDescription());
-        transaction.setOperatorId(operatorId);
-        balanceTransactionMapper.insert(transaction);
+        // 原子更新余额并记录变动历史
+        balanceLedgerService.apply(id, BalanceTransaction.TransactionType.RECHARGE,
+                request.getAmount(), request.getDescription(), operatorId);
 
-        return customer;
+        return customerMapper.findById(id);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Customer deduct(Long id, BalanceDeductRequest request, Long operatorId) {
-        // 检查客户是否存在
-        Customer customer = customerMapper.findById(id);
-        if (customer == null) {
-            throw new BusinessException(4001, "客户不存在");
-        }
-
         // 验证扣减金额
         if (request.getAmount() == null || request.getAmount() <= 0) {
             throw new BusinessException(4003, "扣减金额必须大于0");
         }
 
-        // 获取当前余额
-        Long balanceBefore = customer.getBalance() != null ? customer.getBalance() : 0L;
+        // 原子扣减余额（余额不足时不更新）并记录变动历史
+        balanceLedgerService.apply(id, BalanceTransaction.TransactionType.DEDUCT,
+                request.getAmount(), request.getDescription(), operatorId);
 
-        // 检查余额是否充足
-        if (balanceBefore < request.getAmount()) {
-            throw new BusinessException(4002, "余额不足");
-        }
-
-        Long balanceAfter = balanceBefore - request.getAmount();
-
-        // 更新余额
-        customer.setBalance(balanceAfter);
-        customerMapper.updateBalance(id, balanceAfter);
-
-        // 记录余额变动历史
-        BalanceTransaction transaction = new BalanceTransaction();
-        transaction.setCustomerId(id);
-        transaction.setType(BalanceTransaction.TransactionType.DEDUCT);
-        transaction.setAmount(request.getAmount());
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setDescription(request.getDescription());
-        transaction.setOperatorId(operatorId);
-        balanceTransactionMapper.insert(transaction);
-
-        return customer;
+        return customerMapper.findById(id);
     }
 
     @Override
@@ -168,8 +201,39 @@ public class CustomerServiceImpl implements CustomerService {
 
         // 查询数据
         List<BalanceTransaction> list = balanceTransactionMapper.findByCustomerId(id, offset, pageSize);
+        fillOperatorNames(list);
         Long total = balanceTransactionMapper.countByCustomerId(id);
 
         return new PageResult<>(list, total, page, pageSize);
     }
+
+    @Override
+    public PageResult<BalanceTransaction> getBalanceHistoryByCursor(Long id, String cursor, Integer pageSize) {
+        // 检查客户是否存在
+        if (customerMapper.findById(id) == null) {
+            throw new BusinessException(4001, "客户不存在");
+        }
+
+        CursorUtil.Cursor position = CursorUtil.decode(cursor);
+        List<BalanceTransaction> rows = balanceTransactionMapper.findByCustomerIdAndCursor(id,
+                position != null ? position.key() : null, position != null ? position.id() : null,
+                pageSize + 1);
+        fillOperatorNames(rows);
+        return CursorUtil.toPage(rows, pageSize,
+                t -> t.getCreatedAt().format(CURSOR_TIME_FORMAT), BalanceTransaction::getId);
+    }
+
+    /**
+     * 从用户目录填充操作人名称
+     */
+    private void fillOperatorNames(List<BalanceTransaction> transactions) {
+        Set<Long> operatorIds = new HashSet<>();
+        transactions.forEach(t -> operatorIds.add(t.getOperatorId()));
+        operatorIds.remove(null);
+        if (operatorIds.isEmpty()) {
+            return;
+        }
+        Map<Long, String> names = userDirectoryService.getDisplayNames(operatorIds);
+        transactions.forEach(t -> t.setOperatorName(names.get(t.getOperatorId())));
+    }
 }
@@ -0,0 +1,221 @@
+package com.petshop.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.backend.entity.IdempotencyRecord;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.mapper.IdempotencyRecordMapper;
+import com.petshop.backend.service.IdempotencyService;
+import com.petshop.backend.util.DatabaseOutage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 请求幂等服务实现类
+ * 结果先查内存（有界LRU+过期），再查数据库；同键并发请求等待正在执行的那一次
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordMapper idempotencyRecordMapper;
+    private final ObjectMapper objectMapper;
+    private final DatabaseOutage databaseOutage;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    /**
+     * 正在执行的请求
+     */
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 已完成请求的结果（JSON），按访问顺序淘汰
+     */
+    private final Map<String, CachedResult> completed = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    @Override
+    public <T> T execute(String scope, String idempotencyKey, Class<T> resultType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(1001, "Idempotency-Key 长度不能超过" + MAX_KEY_LENGTH);
+        }
+        String requestKey = scope + ":" + idempotencyKey;
+
+        // 1. 内存中已有结果
+        String cachedJson = getCached(requestKey);
+        if (cachedJson != null) {
+            return fromJson(cachedJson, resultType);
+        }
+
+        // 2. 同键请求正在执行，等待其结果
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(requestKey, future);
+        if (running != null) {
+            return resultType.cast(await(running));
+        }
+
+        try {
+            // 上一次执行可能在步骤 1 之后才写入内存并结束，其结果未必已保存到数据库，抢到执行权后再查一次内存
+            cachedJson = getCached(requestKey);
+            if (cachedJson != null) {
+                T result = fromJson(cachedJson, resultType);
+                future.complete(result);
+                return result;
+            }
+
+            // 3. 数据库中已有结果（重启前执行过）
+            IdempotencyRecord record = findPersisted(requestKey);
+            if (record != null) {
+                putCached(requestKey, record.getResponse());
+                T result = fromJson(record.getResponse(), resultType);
+                future.complete(result);
+                return result;
+            }
+
+            // 4. 首次执行，仅保存成功结果，失败的请求允许重试
+            T result = action.get();
+            String json = toJson(result);
+            putCached(requestKey, json);
+            persist(requestKey, json);
+
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(requestKey, future);
+        }
+    }
+
+    /**
+     * 定时清理过期的持久化记录
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:3600000}")
+    public void cleanup() {
+        try {
+            int deleted = idempotencyRecordMapper.deleteCreatedBefore(
+                    LocalDateTime.now().minusHours(ttlHours));
+            if (deleted > 0) {
+                log.info("清理过期幂等记录: {} 条", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("清理过期幂等记录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询持久化的结果，数据库不可用时（开单转入本地暂存）只依赖内存结果，
+     * 已标记不可用时不再访问连接池，避免每次重试都等满获取连接超时
+     */
+    private IdempotencyRecord findPersisted(String requestKey) {
+        if (databaseOutage.isDown()) {
+            return null;
+        }
+        try {
+            return idempotencyRecordMapper.findByKey(requestKey);
+        } catch (DataAccessException e) {
+            databaseOutage.markIfConnectionFailure(e);
+            log.warn("查询幂等记录失败，仅使用内存结果: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String requestKey, String json) {
+        if (databaseOutage.isDown()) {
+            return;
+        }
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestKey(requestKey);
+        record.setResponse(json);
+        try {
+            idempotencyRecordMapper.insert(record);
+        } catch (DataAccessException e) {
+            // 操作已成功，保存失败不能让客户端误以为失败而重试
+            databaseOutage.markIfConnectionFailure(e);
+            log.warn("保存幂等记录失败，仅保留在内存中: {}", e.getMessage());
+        }
+    }
+
+    private String getCached(String requestKey) {
+        synchronized (completed) {
+            CachedResult cached = completed.get(requestKey);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt < System.currentTimeMillis()) {
+                completed.remove(requestKey);
+                return null;
+            }
+            return cached.json;
+        }
+    }
+
+    private void putCached(String requestKey, String json) {
+        long expiresAt = System.currentTimeMillis() + Duration.ofHours(ttlHours).toMillis();
+        synchronized (completed) {
+            completed.put(requestKey, new CachedResult(json, expiresAt));
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("幂等结果序列化失败", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> resultType) {
+        try {
+            return objectMapper.readValue(json, resultType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("幂等结果反序列化失败", e);
+        }
+    }
+
+    /**
+     * 缓存的执行结果
+     */
+    private record CachedResult(String json, long expiresAt) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.dto.MetricSnapshot;
+import com.petshop.backend.service.MetricsService;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监控指标查询服务实现类
+ */
+@Service
+@RequiredArgsConstructor
+public class MetricsServiceImpl implements MetricsService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public List<MetricSnapshot> findByPrefix(String prefix) {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (prefix != null && !prefix.isEmpty() && !id.getName().startsWith(prefix)) {
+                continue;
+            }
+
+            Map<String, String> tags = new LinkedHashMap<>();
+            for (Tag tag : id.getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            Map<String, Double> measurements = new LinkedHashMap<>();
+            for (Measurement measurement : meter.measure()) {
+                measurements.put(measurement.getStatistic().name(), measurement.getValue());
+            }
+            snapshots.add(new MetricSnapshot(id.getName(), tags, measurements));
+        }
+        snapshots.sort(Comparator.comparing(MetricSnapshot::getName));
+        return snapshots;
+    }
+}
@@ -0,0 +1,171 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.Product;
+import com.petshop.backend.mapper.ProductMapper;
+import com.petshop.backend.service.ProductCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商品缓存服务实现类
+ * LRU + 过期时间；失效时版本号加一，加载期间发生过失效的结果不放入缓存，
+ * 避免并发读取把提交前的旧数据重新放入缓存
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductCacheServiceImpl implements ProductCacheService {
+
+    private final ProductMapper productMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${product.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                sizeEvictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private Counter hits;
+    private Counter misses;
+    private Counter sizeEvictions;
+    private Counter expiredEvictions;
+    private Counter invalidations;
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("product.cache.requests").tag("result", "hit")
+                .description("商品缓存查询次数")
+                .register(meterRegistry);
+        misses = Counter.builder("product.cache.requests").tag("result", "miss")
+                .description("商品缓存查询次数")
+                .register(meterRegistry);
+        sizeEvictions = Counter.builder("product.cache.evictions").tag("cause", "size")
+                .description("商品缓存淘汰次数")
+                .register(meterRegistry);
+        expiredEvictions = Counter.builder("product.cache.evictions").tag("cause", "expired")
+                .description("商品缓存淘汰次数")
+                .register(meterRegistry);
+        invalidations = Counter.builder("product.cache.evictions").tag("cause", "invalidated")
+                .description("商品缓存淘汰次数")
+                .register(meterRegistry);
+        Gauge.builder("product.cache.size", entries, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .description("商品缓存条目数")
+                .register(meterRegistry);
+        Gauge.builder("product.cache.hit_ratio", this, cache -> {
+                    double total = cache.hits.count() + cache.misses.count();
+                    return total > 0 ? cache.hits.count() / total : 0;
+                })
+                .description("商品缓存命中率")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Product get(Long id) {
+        return getAll(List.of(id)).get(id);
+    }
+
+    @Override
+    public Map<Long, Product> getAll(Collection<Long> ids) {
+        Map<Long, Product> result = new HashMap<>();
+        if (!enabled) {
+            productMapper.findByIds(ids).forEach(product -> result.put(product.getId(), product));
+            return result;
+        }
+
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            for (Long id : ids) {
+                Entry entry = entries.get(id);
+                if (entry != null && now - entry.loadedAt >= ttlSeconds * 1000) {
+                    entries.remove(id);
+                    expiredEvictions.increment();
+                    entry = null;
+                }
+                if (entry != null) {
+                    result.put(id, entry.product.copy());
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        hits.increment(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.increment(missing.size());
+        long loadVersion = version.get();
+        List<Product> loaded = productMapper.findByIds(missing);
+        synchronized (entries) {
+            // 加载期间有商品被修改时不确定读到的是哪个版本，只返回不缓存
+            boolean cacheable = version.get() == loadVersion;
+            for (Product product : loaded) {
+                if (cacheable) {
+                    entries.put(product.getId(), new Entry(product, now));
+                }
+                result.put(product.getId(), product.copy());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Long id) {
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    private void remove(Long id) {
+        version.incrementAndGet();
+        synchronized (entries) {
+            if (entries.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private record Entry(Product product, long loadedAt) {
+    }
+}
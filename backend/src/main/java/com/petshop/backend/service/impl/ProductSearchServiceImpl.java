@@ -0,0 +1,267 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.Product;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.mapper.ProductMapper;
+import com.petshop.backend.service.ProductSearchService;
+import com.petshop.backend.service.StockReservationService;
+import com.petshop.backend.util.PinyinMatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品搜索服务实现类
+ * 商品数量不大，索引为写时复制的不可变快照，搜索时无锁遍历打分、扫码时按条码直接查表；
+ * 子串和拼音匹配不足 limit 条时再补充错字匹配。索引构建完成前回退到数据库查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(match -> match.entry.product.getName().length())
+            .thenComparing(match -> match.entry.product.getId());
+
+    private final ProductMapper productMapper;
+    private final StockReservationService stockReservationService;
+
+    @Value("${product.search.retry-interval-ms:30000}")
+    private long retryIntervalMs;
+
+    /**
+     * 索引快照，构建完成前为 null；只整体替换，不原地修改
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 构建期间发生变动的商品ID
+     */
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    private Thread builder;
+
+    @PostConstruct
+    public void init() {
+        builder = new Thread(this::buildUntilSuccess, "product-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.interrupt();
+    }
+
+    @Override
+    public List<Product> search(String keyword, Integer limit) {
+        String query = keyword != null ? PinyinMatcher.normalizeQuery(keyword) : "";
+        if (query.isEmpty()) {
+            throw new BusinessException(1001, "搜索关键字不能为空");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Snapshot current = snapshot;
+        if (current == null) {
+            return productMapper.findByPage(0, size, keyword.trim(), null);
+        }
+
+        List<Match> matches = new ArrayList<>();
+        List<Entry> unmatched = new ArrayList<>();
+        for (Entry entry : current.byId.values()) {
+            int score = PinyinMatcher.score(entry.target, query);
+            if (score > 0) {
+                matches.add(new Match(entry, score));
+            } else {
+                unmatched.add(entry);
+            }
+        }
+        if (matches.size() < size) {
+            for (Entry entry : unmatched) {
+                int score = PinyinMatcher.fuzzyScore(entry.target, query);
+                if (score > 0) {
+                    matches.add(new Match(entry, score));
+                }
+            }
+        }
+        matches.sort(RANKING);
+
+        List<Product> result = new ArrayList<>(Math.min(size, matches.size()));
+        for (Match match : matches.subList(0, Math.min(size, matches.size()))) {
+            result.add(copyWithAvailableStock(match.entry.product));
+        }
+        return result;
+    }
+
+    @Override
+    public Product findByBarcode(String barcode) {
+        String code = barcode != null ? barcode.trim() : "";
+        if (code.isEmpty()) {
+            throw new BusinessException(1001, "条码不能为空");
+        }
+
+        Snapshot current = snapshot;
+        Product product;
+        if (current == null) {
+            product = productMapper.findByBarcode(code);
+        } else {
+            Long id = current.byBarcode.get(barcodeKey(code));
+            product = id != null ? current.byId.get(id).product : null;
+        }
+        if (product == null) {
+            throw new BusinessException(3001, "未找到条码对应的商品: " + code);
+        }
+        return copyWithAvailableStock(product);
+    }
+
+    @Override
+    public void onSaved(Product product) {
+        afterCommit(() -> put(product));
+    }
+
+    @Override
+    public void onDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private void buildUntilSuccess() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                build();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("构建商品搜索索引失败，{} 毫秒后重试: {}", retryIntervalMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void build() {
+        changedDuringBuild.clear();
+        Map<Long, Entry> byId = new HashMap<>();
+        Map<String, Long> byBarcode = new HashMap<>();
+        for (Product product : productMapper.findAll()) {
+            byId.put(product.getId(), new Entry(product, PinyinMatcher.compile(product.getName())));
+            if (product.getBarcode() != null) {
+                byBarcode.put(barcodeKey(product.getBarcode()), product.getId());
+            }
+        }
+
+        List<Long> changed;
+        synchronized (this) {
+            snapshot = new Snapshot(byId, byBarcode);
+            changed = new ArrayList<>(changedDuringBuild);
+            changedDuringBuild.clear();
+        }
+
+        // 构建期间的变动可能未被读到，按数据库当前状态补齐
+        for (Long id : changed) {
+            Product product = productMapper.findById(id);
+            if (product != null) {
+                put(product);
+            } else {
+                remove(id);
+            }
+        }
+        log.info("商品搜索索引构建完成: 商品数={}, 条码数={}", byId.size(), byBarcode.size());
+    }
+
+    private synchronized void put(Product product) {
+        if (snapshot == null) {
+            changedDuringBuild.add(product.getId());
+            return;
+        }
+        Map<Long, Entry> byId = new HashMap<>(snapshot.byId);
+        Map<String, Long> byBarcode = new HashMap<>(snapshot.byBarcode);
+        Entry previous = byId.put(product.getId(), new Entry(product.copy(), PinyinMatcher.compile(product.getName())));
+        if (previous != null && previous.product.getBarcode() != null) {
+            byBarcode.remove(barcodeKey(previous.product.getBarcode()), product.getId());
+        }
+        if (product.getBarcode() != null) {
+            byBarcode.put(barcodeKey(product.getBarcode()), product.getId());
+        }
+        snapshot = new Snapshot(byId, byBarcode);
+    }
+
+    private synchronized void remove(Long id) {
+        if (snapshot == null) {
+            changedDuringBuild.add(id);
+            return;
+        }
+        Map<Long, Entry> byId = new HashMap<>(snapshot.byId);
+        Map<String, Long> byBarcode = new HashMap<>(snapshot.byBarcode);
+        Entry previous = byId.remove(id);
+        if (previous != null && previous.product.getBarcode() != null) {
+            byBarcode.remove(barcodeKey(previous.product.getBarcode()), id);
+        }
+        snapshot = new Snapshot(byId, byBarcode);
+    }
+
+    /**
+     * 条码唯一索引的排序规则不区分大小写，内存查表与之保持一致
+     */
+    private static String barcodeKey(String barcode) {
+        return barcode.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 返回副本（调用方会修改，如隐藏价格），库存优先使用库存预占计数中的当前值
+     */
+    private Product copyWithAvailableStock(Product product) {
+        Product copy = product.copy();
+        Integer available = stockReservationService.getAvailable(product.getId());
+        if (available != null) {
+            copy.setStock(available);
+        }
+        return copy;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 索引快照：商品ID -> 索引项，条码（大写）-> 商品ID
+     */
+    private record Snapshot(Map<Long, Entry> byId, Map<String, Long> byBarcode) {
+    }
+
+    /**
+     * 索引项：商品快照及预处理后的名称
+     */
+    private record Entry(Product product, PinyinMatcher.Target target) {
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+}
@@ -2,14 +2,29 @@ package com.petshop.backend.service.impl;
 
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.entity.Product;
+import com.petshop.backend.enums.TotalMode;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.ProductMapper;
+import com.petshop.backend.service.ProductCacheService;
+import com.petshop.backend.service.ProductSearchService;
 import com.petshop.backend.service.ProductService;
+import com.petshop.backend.service.StockReservationService;
+import com.petshop.backend.util.CountCache;
+import com.petshop.backend.util.FieldSelector;
 import com.petshop.backend.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 商品服务实现类
@@ -18,63 +33,151 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final String COUNT_TABLE = "products";
+    private static final int MAX_BARCODE_BATCH = 1000;
+    private static final FieldSelector LIST_FIELDS = new FieldSelector(
+            List.of("id", "name", "barcode", "price", "stock", "image_url", "description", "created_at", "updated_at"),
+            Set.of("description"));
+
     private final ProductMapper productMapper;
+    private final StockReservationService stockReservationService;
+    private final CountCache countCache;
+    private final ProductSearchService productSearchService;
+    private final ProductCacheService productCacheService;
 
     @Override
-    public PageResult<Product> findByPage(Integer page, Integer pageSize, String search) {
+    public PageResult<Product> findByPage(Integer page, Integer pageSize, String search, String fields, TotalMode totalMode) {
         // 计算偏移量
         Integer offset = PaginationUtil.calculateOffset(page, pageSize);
+        List<String> columns = LIST_FIELDS.resolve(fields);
 
         // 查询数据
-        List<Product> list = productMapper.findByPage(offset, pageSize, search);
-        Long total = productMapper.countBySearch(search);
+        List<Product> list = productMapper.findByPage(offset, pageSize, search, columns);
+        CountCache.Total total = countCache.count(COUNT_TABLE, CountCache.filter(search),
+                totalMode, () -> productMapper.countBySearch(search));
 
-        return new PageResult<>(list, total, page, pageSize);
+        return new PageResult<>(list, total.value(), total.exact(), page, pageSize, null);
     }
 
     @Override
     public Product findById(Long id) {
-        Product product = productMapper.findById(id);
+        Product product = productCacheService.get(id);
         if (product == null) {
             throw new BusinessException(3001, "商品不存在");
         }
+        // 缓存中的库存可能已被开单扣减，优先使用库存预占计数中的当前值
+        Integer available = stockReservationService.getAvailable(id);
+        if (available != null) {
+            product.setStock(available);
+        }
         return product;
     }
 
     @Override
     public Product create(Product product) {
-        productMapper.insert(product);
+        product.setBarcode(normalizeBarcode(product.getBarcode()));
+        try {
+            productMapper.insert(product);
+        } catch (DuplicateKeyException e) {
+            throw duplicateBarcode(product.getBarcode());
+        }
+        countCache.invalidate(COUNT_TABLE);
+        stockReservationService.resync(product.getId(), product.getName(), product.getStock());
+        productSearchService.onSaved(product);
         return product;
     }
 
+    /**
+     * 商品更新与条码清除在同一事务中，缓存与库存计数在提交后刷新
+     */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Product update(Long id, Product product) {
         // 检查商品是否存在
-        Product existingProduct = productMapper.findById(id);
+        Product existingProduct = productCacheService.get(id);
         if (existingProduct == null) {
             throw new BusinessException(3001, "商品不存在");
         }
 
         product.setId(id);
-        productMapper.update(product);
+        // 未传条码时保持原条码，传空串时清除
+        boolean keepBarcode = product.getBarcode() == null;
+        product.setBarcode(normalizeBarcode(product.getBarcode()));
+        try {
+            productMapper.update(product);
+        } catch (DuplicateKeyException e) {
+            throw duplicateBarcode(product.getBarcode());
+        }
+        if (keepBarcode) {
+            product.setBarcode(existingProduct.getBarcode());
+        } else if (product.getBarcode() == null) {
+            productMapper.clearBarcodes(List.of(id));
+        }
+        countCache.invalidate(COUNT_TABLE);
+        productCacheService.evict(id);
+        afterCommit(() -> stockReservationService.resync(id, product.getName(), product.getStock()));
+        productSearchService.onSaved(product);
         return product;
     }
 
     @Override
     public void updateStock(Long id, Integer stock) {
         // 检查商品是否存在
-        Product existingProduct = productMapper.findById(id);
+        Product existingProduct = productCacheService.get(id);
         if (existingProduct == null) {
             throw new BusinessException(3001, "商品不存在");
         }
 
         productMapper.updateStock(id, stock);
+        productCacheService.evict(id);
+        stockReservationService.resync(id, existingProduct.getName(), stock);
+        existingProduct.setStock(stock);
+        productSearchService.onSaved(existingProduct);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void assignBarcodes(Map<Long, String> barcodes) {
+        if (barcodes.isEmpty() || barcodes.size() > MAX_BARCODE_BATCH) {
+            throw new BusinessException(1001, "每次设置的条码数量须在1-" + MAX_BARCODE_BATCH + "之间");
+        }
+
+        Map<Long, String> normalized = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<Long, String> entry : barcodes.entrySet()) {
+            String barcode = normalizeBarcode(entry.getValue());
+            // 条码唯一索引不区分大小写
+            if (barcode != null && !seen.add(barcode.toUpperCase(Locale.ROOT))) {
+                throw new BusinessException(1001, "条码重复: " + barcode);
+            }
+            normalized.put(entry.getKey(), barcode);
+        }
+
+        List<Product> products = productMapper.findByIds(normalized.keySet());
+        if (products.size() != normalized.size()) {
+            Set<Long> missing = new HashSet<>(normalized.keySet());
+            products.forEach(product -> missing.remove(product.getId()));
+            throw new BusinessException(3001, "商品不存在: " + missing);
+        }
+
+        productMapper.clearBarcodes(normalized.keySet());
+        try {
+            productMapper.updateBarcodeBatch(normalized);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(3006, "条码已被其他商品使用");
+        }
+
+        for (Product product : products) {
+            productCacheService.evict(product.getId());
+            product.setBarcode(normalized.get(product.getId()));
+            productSearchService.onSaved(product);
+        }
     }
 
     @Override
     public void deleteById(Long id) {
         // 检查商品是否存在
-        Product existingProduct = productMapper.findById(id);
+        Product existingProduct = productCacheService.get(id);
         if (existingProduct == null) {
             throw new BusinessException(3001, "商品不存在");
         }
@@ -86,5 +189,37 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productMapper.deleteById(id);
+        countCache.invalidate(COUNT_TABLE);
+        productCacheService.evict(id);
+        stockReservationService.remove(id);
+        productSearchService.onDeleted(id);
+    }
+
+    /**
+     * 去掉首尾空白，空串视为无条码
+     */
+    private String normalizeBarcode(String barcode) {
+        if (barcode == null) {
+            return null;
+        }
+        String trimmed = barcode.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private BusinessException duplicateBarcode(String barcode) {
+        return new BusinessException(3006, "条码已被其他商品使用: " + barcode);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -0,0 +1,291 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.config.SaleGroupCommitConfig;
+import com.petshop.backend.dto.GroupCommitStats;
+import com.petshop.backend.dto.SaleCreateRequest;
+import com.petshop.backend.dto.SaleResponse;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.service.SaleGroupCommitService;
+import com.petshop.backend.service.SaleJournalService;
+import com.petshop.backend.service.SaleService;
+import com.petshop.backend.util.DatabaseOutage;
+import com.petshop.backend.util.LockRetryExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 销售批量提交服务实现类
+ * 单个后台线程收集请求，整批在一个事务中提交；每笔销售使用独立保存点，失败只回滚自身。
+ * 合并的只是事务提交（一次 COMMIT/刷盘），各笔销售的语句仍在同一连接上逐条执行，不做跨销售的 JDBC 批量语句。
+ * 死锁/锁等待超时会使 MySQL 回滚整个事务，此时整批重新执行；
+ * 数据库不可用时开单转入本地暂存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SaleGroupCommitServiceImpl implements SaleGroupCommitService {
+
+    private final SaleService saleService;
+    private final PlatformTransactionManager transactionManager;
+    private final SaleGroupCommitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final LockRetryExecutor lockRetryExecutor;
+    private final SaleJournalService saleJournalService;
+    private final DatabaseOutage databaseOutage;
+
+    private final BlockingQueue<PendingSale> queue = new LinkedBlockingQueue<>();
+
+    private TransactionTemplate batchTemplate;
+    private TransactionTemplate saleTemplate;
+    private DistributionSummary batchSizes;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        batchTemplate = new TransactionTemplate(transactionManager);
+        saleTemplate = new TransactionTemplate(transactionManager);
+        saleTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        batchSizes = DistributionSummary.builder("sale.group_commit.batch_size")
+                .description("每批合并提交的销售数")
+                .register(meterRegistry);
+
+        if (config.isEnabled()) {
+            running = true;
+            worker = new Thread(this::runLoop, "sale-group-commit");
+            worker.setDaemon(true);
+            worker.start();
+            log.info("销售批量提交已启用: maxBatchSize={}, lingerMs={}",
+                    config.getMaxBatchSize(), config.getLingerMs());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        failQueued();
+    }
+
+    /**
+     * 未处理的请求直接失败，由客户端重试
+     */
+    private void failQueued() {
+        PendingSale pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new BusinessException(503, "服务正在停止，请重试"));
+        }
+    }
+
+    @Override
+    public SaleResponse createSale(SaleCreateRequest request, Long operatorId) {
+        // 有待补录的暂存开单时继续暂存，保证按顺序补录；刚确认数据库不可用时直接暂存，不再等待获取连接超时
+        if (saleJournalService.hasPending() || databaseOutage.isDown()) {
+            return saleJournalService.append(request, operatorId);
+        }
+        try {
+            return doCreateSale(request, operatorId);
+        } catch (RuntimeException e) {
+            // 只暂存确定未写入的开单，提交时断开连接的开单可能已提交，暂存会导致重复销售
+            if (saleJournalService.isDatabaseUnavailable(e)) {
+                databaseOutage.markIfConnectionFailure(e);
+                return saleJournalService.append(request, operatorId);
+            }
+            throw e;
+        }
+    }
+
+    private SaleResponse doCreateSale(SaleCreateRequest request, Long operatorId) {
+        if (!running) {
+            return lockRetryExecutor.execute("开单", () -> saleService.createSale(request, operatorId));
+        }
+
+        PendingSale pending = new PendingSale(request, operatorId);
+        queue.add(pending);
+        // 入队前后批量线程可能已停止并清空队列，仍能从队列取回说明没人会处理，改为直接执行
+        if (!running && queue.remove(pending)) {
+            return lockRetryExecutor.execute("开单", () -> saleService.createSale(request, operatorId));
+        }
+        try {
+            return pending.future.get(config.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // 仍在队列中说明尚未执行，可放心重试；已取出的批次结果未知，需先核对销售记录
+            if (queue.remove(pending)) {
+                throw new BusinessException(503, "开单排队超时，请重试");
+            }
+            log.warn("等待批量提交超时（{}ms），该笔销售可能仍会提交", config.getWaitTimeoutMs());
+            throw new BusinessException(503, "开单处理超时，请核对销售记录后再重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "开单被中断，请重试");
+        }
+    }
+
+    @Override
+    public GroupCommitStats getStats() {
+        return new GroupCommitStats(
+                running,
+                batchSizes.count(),
+                (long) batchSizes.totalAmount(),
+                batchSizes.mean(),
+                batchSizes.max(),
+                queue.size());
+    }
+
+    /**
+     * 后台线程入口；线程因停止、中断或未捕获的错误退出后不再入队，已排队的请求直接失败
+     */
+    private void runLoop() {
+        try {
+            loop();
+        } finally {
+            running = false;
+            failQueued();
+        }
+    }
+
+    /**
+     * 取到第一笔后在 linger 时间内继续收集，直到达到批次上限
+     */
+    private void loop() {
+        while (running) {
+            try {
+                PendingSale first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingSale> batch = new ArrayList<>(config.getMaxBatchSize());
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+                while (batch.size() < config.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingSale next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("批量提交线程异常: ", e);
+            }
+        }
+    }
+
+    /**
+     * 整批在一个事务中执行，提交成功后再通知各调用方
+     */
+    private void commitBatch(List<PendingSale> batch) {
+        try {
+            lockRetryExecutor.execute("批量开单", () -> {
+                executeBatch(batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("批量提交失败，批次大小: {}", batch.size(), e);
+            for (PendingSale pending : batch) {
+                if (pending.error == null) {
+                    pending.error = e;
+                }
+            }
+        }
+
+        batchSizes.record(batch.size());
+        for (PendingSale pending : batch) {
+            if (pending.error != null) {
+                pending.future.completeExceptionally(pending.error);
+            } else {
+                pending.future.complete(pending.response);
+            }
+        }
+    }
+
+    /**
+     * 执行一次整批事务；锁冲突时保存点已随事务失效，抛出原始异常使整批回滚重试
+     */
+    private void executeBatch(List<PendingSale> batch) {
+        for (PendingSale pending : batch) {
+            pending.response = null;
+            pending.error = null;
+        }
+        AtomicReference<PessimisticLockingFailureException> lockFailure = new AtomicReference<>();
+        try {
+            batchTemplate.executeWithoutResult(status -> {
+                for (PendingSale pending : batch) {
+                    try {
+                        pending.response = saleTemplate.execute(s -> {
+                            try {
+                                return saleService.createSale(pending.request, pending.operatorId);
+                            } catch (PessimisticLockingFailureException e) {
+                                lockFailure.set(e);
+                                throw e;
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        if (lockFailure.get() != null) {
+                            throw lockFailure.get();
+                        }
+                        // 已回滚到该笔销售的保存点，不影响同批其他销售
+                        pending.error = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // 回滚失效保存点时的异常会掩盖原始锁冲突，以原始异常为准
+            if (lockFailure.get() != null) {
+                throw lockFailure.get();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 排队中的开单请求
+     */
+    private static final class PendingSale {
+
+        private final SaleCreateRequest request;
+        private final Long operatorId;
+        private final CompletableFuture<SaleResponse> future = new CompletableFuture<>();
+        private SaleResponse response;
+        private RuntimeException error;
+
+        private PendingSale(SaleCreateRequest request, Long operatorId) {
+            this.request = request;
+            this.operatorId = operatorId;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.petshop.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.backend.dto.SaleCreateRequest;
+import com.petshop.backend.dto.SaleJournalStatus;
+import com.petshop.backend.dto.SaleResponse;
+import com.petshop.backend.entity.SaleJournalConflict;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.exception.InsufficientStockException;
+import com.petshop.backend.mapper.SaleJournalConflictMapper;
+import com.petshop.backend.mapper.SaleMapper;
+import com.petshop.backend.service.SaleJournalService;
+import com.petshop.backend.service.SaleService;
+import com.petshop.backend.util.DatabaseOutage;
+import com.petshop.backend.util.LockRetryExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 开单本地暂存服务实现类
+ * 暂存文件通过内存映射追加写入，每条记录写入后立即刷盘；
+ * 文件头保存写入位置、补录位置和下一个序号，全部补录完成后从头复用文件空间。
+ * 只有获取连接、开启事务时失败（尚未执行任何语句）的开单才会暂存，提交过程中断开连接的开单可能已写入，不能暂存。
+ * 每条记录带暂存键并随销售写入，补录前按暂存键检查，补录提交后、补录位置刷盘前崩溃也不会重复补录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SaleJournalServiceImpl implements SaleJournalService {
+
+    /**
+     * 文件头：魔数(4) 保留(4) 写入位置(8) 补录位置(8) 下一个序号(8)
+     */
+    private static final int MAGIC = 0x50534A31;
+    private static final int HEADER_SIZE = 64;
+    private static final int WRITE_POS_OFFSET = 8;
+    private static final int REPLAY_POS_OFFSET = 16;
+    private static final int NEXT_SEQ_OFFSET = 24;
+
+    /**
+     * 记录头：长度(4) CRC32(4) 序号(8)，之后为 JSON
+     */
+    private static final int RECORD_HEADER_SIZE = 16;
+
+    private final SaleService saleService;
+    private final SaleJournalConflictMapper saleJournalConflictMapper;
+    private final SaleMapper saleMapper;
+    private final LockRetryExecutor lockRetryExecutor;
+    private final DatabaseOutage databaseOutage;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sale.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sale.journal.path:${user.home}/.petshop/sale-journal.dat}")
+    private String path;
+
+    @Value("${sale.journal.capacity-mb:16}")
+    private int capacityMb;
+
+    private final Object lock = new Object();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong replayed = new AtomicLong();
+    private volatile LocalDateTime lastReplayAt;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int writePos;
+    private int replayPos;
+    private long nextSeq;
+    private Timer appendTimer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(path).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        capacity = (int) Math.max((long) capacityMb * 1024 * 1024, channel.size());
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if (created) {
+            buffer.putInt(0, MAGIC);
+            writePos = HEADER_SIZE;
+            replayPos = HEADER_SIZE;
+            nextSeq = 1;
+            writeHeader();
+        } else {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("开单暂存文件格式不正确: " + file);
+            }
+            writePos = (int) buffer.getLong(WRITE_POS_OFFSET);
+            replayPos = (int) buffer.getLong(REPLAY_POS_OFFSET);
+            nextSeq = buffer.getLong(NEXT_SEQ_OFFSET);
+            recover();
+        }
+
+        appendTimer = Timer.builder("sale.journal.append")
+                .description("开单暂存写入耗时（含刷盘）")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        log.info("开单本地暂存已启用: {}，待补录 {} 笔", file, pending.get());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            synchronized (lock) {
+                buffer.force();
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasPending() {
+        return pending.get() > 0;
+    }
+
+    @Override
+    public boolean isDatabaseUnavailable(Throwable e) {
+        if (!enabled) {
+            return false;
+        }
+        // 连接在执行语句或提交时断开的，事务可能已提交，只能报错由人工确认
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public SaleResponse append(SaleCreateRequest request, Long operatorId) {
+        if (!enabled) {
+            throw new BusinessException(503, "数据库暂不可用，请稍后重试");
+        }
+        long start = System.nanoTime();
+        byte[] payload = toJson(new JournalEntry(UUID.randomUUID().toString(), operatorId, LocalDateTime.now(), request))
+                .getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_HEADER_SIZE + payload.length;
+
+        long seq;
+        synchronized (lock) {
+            if (writePos + size > capacity) {
+                throw new BusinessException(503, "数据库暂不可用且本地暂存已满，请稍后重试");
+            }
+            seq = nextSeq;
+            buffer.putLong(writePos + 8, seq);
+            buffer.put(writePos + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(writePos + 4, checksum(writePos + 8, 8 + payload.length));
+            buffer.putInt(writePos, payload.length);
+            buffer.force(writePos, size);
+
+            writePos += size;
+            nextSeq++;
+            writeHeader();
+            pending.incrementAndGet();
+        }
+        appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.warn("数据库不可用，开单已暂存: seq={}", seq);
+        return new SaleResponse(null, request.getTotalAmount(), request.getSaleDate(), seq);
+    }
+
+    /**
+     * 定时补录暂存的开单
+     */
+    @Scheduled(fixedDelayString = "${sale.journal.replay-interval:1000}")
+    public void replayPending() {
+        try {
+            int count = replay();
+            if (count > 0) {
+                log.info("已补录暂存开单 {} 笔，剩余 {} 笔", count, pending.get());
+            }
+        } catch (Exception e) {
+            log.error("补录暂存开单失败，将在下次调度时重试: ", e);
+        }
+    }
+
+    @Override
+    public int replay() {
+        if (!enabled || pending.get() == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (true) {
+            JournalRecord record;
+            synchronized (lock) {
+                if (replayPos >= writePos) {
+                    databaseOutage.markUp();
+                    return count;
+                }
+                record = readRecord(replayPos);
+            }
+
+            JournalEntry entry = null;
+            try {
+                entry = objectMapper.readValue(record.payload, JournalEntry.class);
+                JournalEntry replaying = entry;
+                if (isReplayed(replaying)) {
+                    log.info("暂存开单已补录过，跳过: seq={}", record.seq);
+                } else {
+                    lockRetryExecutor.execute("补录开单", () -> saleService.createSale(
+                            replaying.request(), replaying.operatorId(), replaying.journalKey()));
+                }
+            } catch (DuplicateKeyException e) {
+                // 并发补录同一笔时由暂存键唯一索引拦截
+                if (!isReplayed(entry)) {
+                    recordConflict(record, entry, e);
+                }
+            } catch (Exception e) {
+                // 数据库仍不可用或锁冲突重试用尽，稍后再补录同一笔
+                // 连接类异常：补录按暂存键去重，可以安全地稍后重试
+                if (databaseOutage.markIfConnectionFailure(e)
+                        || (e instanceof BusinessException busy && busy.getCode() == 503)) {
+                    log.warn("暂停补录: {}", e.getMessage());
+                    return count;
+                }
+                recordConflict(record, entry, e);
+            }
+
+            synchronized (lock) {
+                replayPos = record.nextPos;
+                // 全部补录完成，从头复用文件空间
+                if (replayPos == writePos) {
+                    replayPos = HEADER_SIZE;
+                    writePos = HEADER_SIZE;
+                }
+                writeHeader();
+            }
+            pending.decrementAndGet();
+            replayed.incrementAndGet();
+            lastReplayAt = LocalDateTime.now();
+            count++;
+        }
+    }
+
+    @Override
+    public SaleJournalStatus getStatus() {
+        long used;
+        synchronized (lock) {
+            used = enabled ? writePos - HEADER_SIZE : 0;
+        }
+        Long conflicts = null;
+        try {
+            conflicts = saleJournalConflictMapper.count();
+        } catch (DataAccessException e) {
+            log.warn("查询补录冲突数失败: {}", e.getMessage());
+        }
+        return new SaleJournalStatus(enabled, pending.get(), used, (long) capacity,
+                replayed.get(), conflicts, lastReplayAt);
+    }
+
+    @Override
+    public List<SaleJournalConflict> findConflicts() {
+        return saleJournalConflictMapper.findAll();
+    }
+
+    @Override
+    public void resolveConflict(Long id) {
+        if (saleJournalConflictMapper.deleteById(id) == 0) {
+            throw new BusinessException(404, "补录冲突不存在");
+        }
+    }
+
+    /**
+     * 该笔是否已写入数据库（升级前暂存的记录没有暂存键，无法判断）
+     */
+    private boolean isReplayed(JournalEntry entry) {
+        return entry != null && entry.journalKey() != null
+                && saleMapper.findIdByJournalKey(entry.journalKey()) != null;
+    }
+
+    /**
+     * 补录失败（库存不足、会员余额不足等）的开单转入冲突表，由管理员处理
+     */
+    private void recordConflict(JournalRecord record, JournalEntry entry, Exception e) {
+        int errorCode = 500;
+        if (e instanceof BusinessException businessException) {
+            errorCode = businessException.getCode();
+        } else if (e instanceof InsufficientStockException) {
+            errorCode = 3002;
+        }
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+
+        SaleJournalConflict conflict = new SaleJournalConflict();
+        conflict.setJournalSeq(record.seq);
+        conflict.setOperatorId(entry != null ? entry.operatorId() : null);
+        conflict.setRequest(entry != null ? toJson(entry.request()) : new String(record.payload, StandardCharsets.UTF_8));
+        conflict.setErrorCode(errorCode);
+        conflict.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+        conflict.setAcceptedAt(entry != null ? entry.acceptedAt() : LocalDateTime.now());
+        saleJournalConflictMapper.insert(conflict);
+        log.warn("暂存开单补录失败，已转入冲突列表: seq={}, {}", record.seq, message);
+    }
+
+    /**
+     * 启动时校验待补录记录，遇到不完整的记录（写入中途崩溃）则从该处截断
+     */
+    private void recover() {
+        int pos = replayPos;
+        int count = 0;
+        while (pos < writePos) {
+            int length = buffer.getInt(pos);
+            int end = pos + RECORD_HEADER_SIZE + length;
+            if (length <= 0 || end > writePos
+                    || buffer.getInt(pos + 4) != checksum(pos + 8, 8 + length)) {
+                log.error("开单暂存文件在位置 {} 处损坏，丢弃之后的 {} 字节", pos, writePos - pos);
+                writePos = pos;
+                writeHeader();
+                break;
+            }
+            pos = end;
+            count++;
+        }
+        pending.set(count);
+    }
+
+    private JournalRecord readRecord(int pos) {
+        int length = buffer.getInt(pos);
+        long seq = buffer.getLong(pos + 8);
+        byte[] payload = new byte[length];
+        buffer.get(pos + RECORD_HEADER_SIZE, payload);
+        return new JournalRecord(seq, payload, pos + RECORD_HEADER_SIZE + length);
+    }
+
+    private void writeHeader() {
+        buffer.putLong(WRITE_POS_OFFSET, writePos);
+        buffer.putLong(REPLAY_POS_OFFSET, replayPos);
+        buffer.putLong(NEXT_SEQ_OFFSET, nextSeq);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private int checksum(int pos, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos, length));
+        return (int) crc.getValue();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("开单请求序列化失败", e);
+        }
+    }
+
+    /**
+     * 暂存的开单请求
+     */
+    private record JournalEntry(String journalKey, Long operatorId, LocalDateTime acceptedAt, SaleCreateRequest request) {
+    }
+
+    /**
+     * 从文件中读出的一条记录
+     */
+    private record JournalRecord(long seq, byte[] payload, int nextPos) {
+    }
+}
@@ -4,17 +4,34 @@ import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.SaleCreateRequest;
 import com.petshop.backend.dto.SaleResponse;
 import com.petshop.backend.entity.*;
+import com.petshop.backend.enums.CheckoutStage;
+import com.petshop.backend.enums.SaleItemsMode;
+import com.petshop.backend.enums.TotalMode;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.exception.InsufficientStockException;
 import com.petshop.backend.mapper.*;
+import com.petshop.backend.service.AccountingOutboxService;
+import com.petshop.backend.service.BalanceLedgerService;
+import com.petshop.backend.service.CheckoutMetricsService;
+import com.petshop.backend.service.ProductCacheService;
 import com.petshop.backend.service.SaleService;
+import com.petshop.backend.service.StockReservationService;
+import com.petshop.backend.util.CountCache;
+import com.petshop.backend.util.CursorUtil;
 import com.petshop.backend.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * 商品销售服务实现类
@@ -23,87 +40,130 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SaleServiceImpl implements SaleService {
 
+    private static final String COUNT_TABLE = "sales";
+    private static final int SUMMARY_ITEM_LIMIT = 3;
+
     private final SaleMapper saleMapper;
     private final SaleItemMapper saleItemMapper;
     private final ProductMapper productMapper;
-    private final TransactionMapper transactionMapper;
     private final ConsumptionRecordMapper consumptionRecordMapper;
-    private final CustomerMapper customerMapper;
-    private final BalanceTransactionMapper balanceTransactionMapper;
+    private final BalanceLedgerService balanceLedgerService;
+    private final StockReservationService stockReservationService;
+    private final AccountingOutboxService accountingOutboxService;
+    private final CheckoutMetricsService checkoutMetricsService;
+    private final CountCache countCache;
+    private final ProductCacheService productCacheService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public SaleResponse createSale(SaleCreateRequest request, Long operatorId) {
+        return createSale(request, operatorId, null);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public SaleResponse createSale(SaleCreateRequest request, Long operatorId, String journalKey) {
+        long start = System.nanoTime();
+        boolean useBalance = request.isUseBalance() && request.getCustomerId() != null;
+        int profile = checkoutMetricsService.profile(
+                request.getItems().size(), useBalance, request.isRecordToAccounting());
+
+        // 0. 内存预占库存，超卖请求在访问数据库前即被拒绝
+        Map<Long, Integer> quantities = sumQuantitiesByProduct(request.getItems());
+        StockReservationService.Reservation reservation = stockReservationService.reserve(quantities);
+        long stageStart = checkoutMetricsService.record(CheckoutStage.RESERVE_STOCK, profile, start);
+        try {
+            SaleResponse response = doCreateSale(request, operatorId, journalKey, quantities, useBalance, profile, stageStart);
+            checkoutMetricsService.record(CheckoutStage.TOTAL, profile, start);
+            return response;
+        } catch (RuntimeException e) {
+            // 批量提交时单笔销售只回滚到保存点，外层事务仍会提交，需要在此释放预占
+            reservation.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 按顺序执行开单各步骤
+     * 先按固定顺序加排他锁（商品按ID升序，再到会员），再写入引用它们的记录，
+     * 避免外键检查先加共享锁、后续UPDATE再升级为排他锁造成的死锁；
+     * 每个阶段结束时记录耗时，上一阶段的结束时间即下一阶段的开始时间
+     */
+    private SaleResponse doCreateSale(SaleCreateRequest request, Long operatorId, String journalKey,
+                                      Map<Long, Integer> quantities, boolean useBalance, int profile, long stageStart) {
         // 1. 验证商品库存
-        List<Product> products = validateProductsAndGet(request.getItems());
+        List<Product> products = validateProductsAndGet(request.getItems(), quantities);
+        stageStart = checkoutMetricsService.record(CheckoutStage.VALIDATE_PRODUCTS, profile, stageStart);
 
-        // 2. 验证会员余额
-        if (request.isUseBalance() && request.getCustomerId() != null) {
-            validateCustomerBalance(request.getCustomerId(), request.getTotalAmount());
+        // 2. 扣减库存（按商品ID升序加锁）
+        deductStock(quantities);
+        stageStart = checkoutMetricsService.record(CheckoutStage.DEDUCT_STOCK, profile, stageStart);
+
+        // 3. 处理余额支付（锁定会员行，余额不足时由条件UPDATE判定）
+        if (useBalance) {
+            deductBalanceForSale(request.getCustomerId(), request.getTotalAmount(), operatorId);
+            stageStart = checkoutMetricsService.record(CheckoutStage.DEDUCT_BALANCE, profile, stageStart);
         }
 
-        // 3. 创建销售记录
-        Sale sale = createSaleRecord(request);
+        // 4. 创建销售记录
+        Sale sale = createSaleRecord(request, journalKey);
+        stageStart = checkoutMetricsService.record(CheckoutStage.CREATE_SALE, profile, stageStart);
 
-        // 4. 创建销售项并扣减库存
-        createSaleItemsAndDeductStock(sale.getId(), request.getItems(), products);
+        // 5. 创建销售项
+        createSaleItems(sale.getId(), request.getItems(), products);
+        stageStart = checkoutMetricsService.record(CheckoutStage.CREATE_ITEMS, profile, stageStart);
 
-        // 5. 创建消费记录（会员）
+        // 6. 创建消费记录（会员）
         if (request.getCustomerId() != null) {
             createConsumptionRecord(request.getCustomerId(), sale.getId(),
                     request.getSaleDate(), request.getTotalAmount());
-        }
-
-        // 6. 处理余额支付
-        if (request.isUseBalance() && request.getCustomerId() != null) {
-            deductBalanceForSale(request.getCustomerId(), request.getTotalAmount(), operatorId);
+            stageStart = checkoutMetricsService.record(CheckoutStage.CREATE_CONSUMPTION, profile, stageStart);
         }
 
         // 7. 同步财务记录
         if (request.isRecordToAccounting()) {
-            syncToAccounting(sale.getId(), request, products);
+            syncToAccounting(sale.getId());
+            checkoutMetricsService.record(CheckoutStage.SYNC_ACCOUNTING, profile, stageStart);
         }
 
         return new SaleResponse(sale.getId(), sale.getTotalAmount(), sale.getSaleDate());
     }
 
     /**
-     * 验证商品存在性和库存
+     * 验证商品存在性
+     * 商品名称取自商品缓存，返回列表与销售项一一对应；
+     * 库存以预占计数和带条件的扣减为准，这里不再按缓存中的库存校验
      */
-    private List<Product> validateProductsAndGet(List<SaleCreateRequest.SaleItemRequest> items) {
-        List<Product> products = new ArrayList<>();
+    private List<Product> validateProductsAndGet(List<SaleCreateRequest.SaleItemRequest> items,
+                                                 Map<Long, Integer> quantities) {
+        Map<Long, Product> productMap = productCacheService.getAll(quantities.keySet());
+
+        List<Product> products = new ArrayList<>(items.size());
         for (SaleCreateRequest.SaleItemRequest item : items) {
-            Product product = productMapper.findById(item.getProductId());
+            Product product = productMap.get(item.getProductId());
             if (product == null) {
                 throw new BusinessException(3001, "商品不存在: " + item.getProductId());
             }
-            if (product.getStock() < item.getQuantity()) {
-                throw new InsufficientStockException(
-                        product.getName(), product.getStock(), item.getQuantity());
-            }
             products.add(product);
         }
         return products;
     }
 
     /**
-     * 验证会员余额是否充足
+     * 按商品ID合计购买数量（保持购物车中的首次出现顺序）
      */
-    private void validateCustomerBalance(Long customerId, Long totalAmount) {
-        Customer customer = customerMapper.findById(customerId);
-        if (customer == null) {
-            throw new BusinessException(2001, "客户不存在");
-        }
-        Long currentBalance = customer.getBalance() != null ? customer.getBalance() : 0L;
-        if (currentBalance < totalAmount) {
-            throw new BusinessException(3003, "余额不足");
+    private Map<Long, Integer> sumQuantitiesByProduct(List<SaleCreateRequest.SaleItemRequest> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (SaleCreateRequest.SaleItemRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
+        return quantities;
     }
 
     /**
      * 创建销售主记录
      */
-    private Sale createSaleRecord(SaleCreateRequest request) {
+    private Sale createSaleRecord(SaleCreateRequest request, String journalKey) {
         Sale sale = new Sale();
         sale.setCustomerId(request.getCustomerId());
         sale.setCustomerName(request.getCustomerName());
@@ -111,14 +171,35 @@ public class SaleServiceImpl implements SaleService {
         sale.setSaleDate(request.getSaleDate());
         sale.setRecordedToAccounting(false);
         sale.setPaidWithBalance(request.isUseBalance());
+        sale.setJournalKey(journalKey);
         saleMapper.insert(sale);
+        countCache.invalidate(COUNT_TABLE);
         return sale;
     }
 
     /**
-     * 创建销售明细并扣减库存
+     * 批量扣减库存
+     * 一条带条件的UPDATE完成扣减，InnoDB 按主键升序加锁，加锁顺序与购物车顺序无关
+     */
+    private void deductStock(Map<Long, Integer> quantities) {
+        // 扣减库存（乐观锁，每个商品都带 stock >= 数量 条件）
+        int rows = productMapper.deductStockBatch(new TreeMap<>(quantities));
+        if (rows < quantities.size()) {
+            throw findInsufficientStock(quantities, rows);
+        }
+        // 未启用库存预占时商品详情直接使用缓存中的库存，需要刷新
+        for (Long productId : quantities.keySet()) {
+            if (stockReservationService.getAvailable(productId) == null) {
+                productCacheService.evict(productId);
+            }
+        }
+    }
+
+    /**
+     * 批量创建销售明细
      */
-    private void createSaleItemsAndDeductStock(Long saleId, List<SaleCreateRequest.SaleItemRequest> items, List<Product> products) {
+    private void createSaleItems(Long saleId, List<SaleCreateRequest.SaleItemRequest> items, List<Product> products) {
+        List<SaleItem> saleItems = new ArrayList<>(items.size());
         for (int i = 0; i < items.size(); i++) {
             SaleCreateRequest.SaleItemRequest item = items.get(i);
             Product product = products.get(i);
@@ -131,15 +212,31 @@ public class SaleServiceImpl implements SaleService {
             saleItem.setQuantity(item.getQuantity());
             saleItem.setUnitPrice(item.getUnitPrice());
             saleItem.setSubtotal(subtotal);
-            saleItemMapper.insert(saleItem);
+            saleItems.add(saleItem);
+        }
+        saleItemMapper.insertBatch(saleItems);
+    }
 
-            // 扣减库存（乐观锁）
-            int rows = productMapper.deductStock(item.getProductId(), item.getQuantity());
-            if (rows == 0) {
-                throw new InsufficientStockException(
-                        product.getName(), product.getStock(), item.getQuantity());
+    /**
+     * 批量扣减失败时定位库存不足的商品
+     * 只在失败路径上执行，事务随后整体回滚；扣减语句已锁住检查过的商品行，
+     * 加锁读看到的就是扣减时的库存，不会被并发补货掩盖
+     */
+    private RuntimeException findInsufficientStock(Map<Long, Integer> quantities, int rows) {
+        Set<Long> missing = new HashSet<>(quantities.keySet());
+        for (Product product : productMapper.findStockForUpdate(new TreeSet<>(quantities.keySet()))) {
+            missing.remove(product.getId());
+            Integer required = quantities.get(product.getId());
+            if (product.getStock() < required) {
+                return new InsufficientStockException(product.getName(), product.getStock(), required);
             }
         }
+        if (!missing.isEmpty()) {
+            return new BusinessException(3001, "商品不存在: " + missing);
+        }
+        // 商品都在且库存足够却未全部扣减，不是客户端能处理的错误，记录异常日志
+        return new IllegalStateException("批量扣减库存影响行数异常: 预期 " + quantities.size() + "，实际 " + rows
+                + "，商品 " + quantities);
     }
 
     /**
@@ -157,50 +254,92 @@ public class SaleServiceImpl implements SaleService {
 
     /**
      * 余额支付处理
+     * 不预先查询余额，由余额变动的条件UPDATE判定，余额不足时沿用开单的错误码
      */
     private void deductBalanceForSale(Long customerId, Long amount, Long operatorId) {
-        Customer customer = customerMapper.findById(customerId);
-        Long balanceBefore = customer.getBalance();
-        Long balanceAfter = balanceBefore - amount;
-
-        customer.setBalance(balanceAfter);
-        customerMapper.updateBalance(customerId, balanceAfter);
-
-        // 记录余额变动历史
-        BalanceTransaction transaction = new BalanceTransaction();
-        transaction.setCustomerId(customerId);
-        transaction.setType(BalanceTransaction.TransactionType.DEDUCT);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setDescription("商品消费");
-        transaction.setOperatorId(operatorId);
-        balanceTransactionMapper.insert(transaction);
+        try {
+            balanceLedgerService.apply(customerId, BalanceTransaction.TransactionType.DEDUCT,
+                    amount, "商品消费", operatorId);
+        } catch (BusinessException e) {
+            if (e.getCode() != null && e.getCode() == 4002) {
+                throw new BusinessException(3003, "余额不足");
+            }
+            throw e;
+        }
     }
 
     /**
      * 同步财务记录
+     * 事务内只登记待同步记录，财务记录由后台任务批量生成并回填 transaction_id
      */
-    private void syncToAccounting(Long saleId, SaleCreateRequest request, List<Product> products) {
-        Transaction transaction = new Transaction();
-        transaction.setType("income");
-        transaction.setAmount(request.getTotalAmount());
-        transaction.setDescription(buildTransactionDescription(
-                request.getCustomerName(), products, request.getItems(), request.getTotalAmount()));
-        transaction.setDate(request.getSaleDate());
-        transactionMapper.insert(transaction);
-
-        saleMapper.updateTransactionId(saleId, transaction.getId());
+    private void syncToAccounting(Long saleId) {
+        accountingOutboxService.enqueue(saleId);
     }
 
     @Override
-    public PageResult<Sale> findByPage(Integer page, Integer pageSize, String startDate, String endDate) {
+    public PageResult<Sale> findByPage(Integer page, Integer pageSize, String startDate, String endDate,
+                                       SaleItemsMode itemsMode, TotalMode totalMode) {
         Integer offset = PaginationUtil.calculateOffset(page, pageSize);
 
         List<Sale> list = saleMapper.findByPage(offset, pageSize, startDate, endDate);
-        Long total = saleMapper.countByDateRange(startDate, endDate);
+        attachItems(list, itemsMode);
+        CountCache.Total total = countCache.count(COUNT_TABLE, CountCache.filter(startDate, endDate),
+                totalMode, () -> saleMapper.countByDateRange(startDate, endDate));
+
+        return new PageResult<>(list, total.value(), total.exact(), page, pageSize, null);
+    }
+
+    @Override
+    public PageResult<Sale> findByCursor(String cursor, Integer pageSize, String startDate, String endDate,
+                                         SaleItemsMode itemsMode) {
+        CursorUtil.Cursor position = CursorUtil.decode(cursor);
+        List<Sale> rows = saleMapper.findByCursor(
+                position != null ? position.key() : null, position != null ? position.id() : null,
+                pageSize + 1, startDate, endDate);
+        PageResult<Sale> result = CursorUtil.toPage(rows, pageSize, Sale::getSaleDate, Sale::getId);
+        attachItems(result.getList(), itemsMode);
+        return result;
+    }
+
+    /**
+     * 一次查出本页全部销售记录的明细，按销售记录ID分组后填充到各记录
+     */
+    private void attachItems(List<Sale> sales, SaleItemsMode itemsMode) {
+        if (itemsMode == SaleItemsMode.NONE || sales.isEmpty()) {
+            return;
+        }
+        List<Long> saleIds = sales.stream().map(Sale::getId).toList();
+        Map<Long, List<SaleItem>> itemsBySaleId = new HashMap<>();
+        for (SaleItem item : saleItemMapper.findBySaleIds(saleIds)) {
+            itemsBySaleId.computeIfAbsent(item.getSaleId(), id -> new ArrayList<>()).add(item);
+        }
+
+        for (Sale sale : sales) {
+            List<SaleItem> items = itemsBySaleId.getOrDefault(sale.getId(), List.of());
+            if (itemsMode == SaleItemsMode.FULL) {
+                sale.setItems(items);
+            } else {
+                sale.setItemSummary(summarize(items));
+                sale.setItemCount(items.stream().mapToInt(SaleItem::getQuantity).sum());
+            }
+        }
+    }
 
-        return new PageResult<>(list, total, page, pageSize);
+    /**
+     * 明细摘要：前几种商品的"名称x数量"，其余以"等N种商品"概括
+     */
+    private String summarize(List<SaleItem> items) {
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < Math.min(items.size(), SUMMARY_ITEM_LIMIT); i++) {
+            if (i > 0) {
+                summary.append("、");
+            }
+            summary.append(items.get(i).getProductName()).append('x').append(items.get(i).getQuantity());
+        }
+        if (items.size() > SUMMARY_ITEM_LIMIT) {
+            summary.append(" 等").append(items.size()).append("种商品");
+        }
+        return summary.toString();
     }
 
     @Override
@@ -213,28 +352,4 @@ public class SaleServiceImpl implements SaleService {
 
         return sale;
     }
-
-    private String buildTransactionDescription(String customerName,
-                                               List<Product> products,
-                                               List<SaleCreateRequest.SaleItemRequest> items,
-                                               Long totalAmount) {
-        StringBuilder desc = new StringBuilder();
-        desc.append(customerName).append("-");
-
-        // 拼接商品信息
-        for (int i = 0; i < items.size(); i++) {
-            if (i > 0) desc.append(" + ");
-            SaleCreateRequest.SaleItemRequest item = items.get(i);
-            Product product = products.get(i);
-            // 格式: 商品名 单价x数量
-            desc.append(product.getName())
-                .append(" ").append(String.format("%.2f", item.getUnitPrice() / 100.0))
-                .append("x").append(item.getQuantity());
-        }
-
-        // 拼接总金额
-        desc.append(" = ").append(String.format("%.2f", totalAmount / 100.0)).append("元");
-
-        return desc.toString();
-    }
 }
@@ -0,0 +1,330 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.Product;
+import com.petshop.backend.exception.InsufficientStockException;
+import com.petshop.backend.mapper.ProductMapper;
+import com.petshop.backend.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 库存预占服务实现类
+ * 每个商品一个计数器，热门商品超卖请求在进入数据库事务前即被拒绝。
+ * 计数器的每次修改只是几次整数运算，用对象锁保证可用数、预占数和提交状态一起变化；
+ * 校准时跳过读取快照期间有事务进入提交或结束的商品，避免同一笔扣减被减两次或漏减
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final ProductMapper productMapper;
+
+    @Value("${stock.reservation.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Reservation reserve(Map<Long, Integer> quantities) {
+        if (!enabled) {
+            return () -> { };
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("库存预占必须在事务中执行");
+        }
+        loadMissing(quantities.keySet());
+
+        // 按商品ID顺序预占，失败时释放已预占的部分
+        Map<Long, Integer> reserved = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            StockCounter counter = counters.get(entry.getKey());
+            if (counter == null) {
+                // 商品不存在，交由后续校验报错
+                continue;
+            }
+            if (!counter.tryReserve(entry.getValue())) {
+                release(reserved);
+                throw new InsufficientStockException(
+                        counter.name, counter.available(), entry.getValue());
+            }
+            reserved.put(entry.getKey(), entry.getValue());
+        }
+
+        ReservationHandle handle = new ReservationHandle(reserved);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                handle.beginCommit();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    handle.confirm();
+                } else {
+                    handle.release();
+                }
+            }
+        });
+        return handle;
+    }
+
+    @Override
+    public void resync(Long productId, String productName, Integer stock) {
+        if (!enabled || productId == null || stock == null) {
+            return;
+        }
+        StockCounter counter = counters.computeIfAbsent(productId, id -> new StockCounter(productName));
+        if (productName != null) {
+            counter.name = productName;
+        }
+        counter.sync(stock);
+    }
+
+    @Override
+    public void remove(Long productId) {
+        counters.remove(productId);
+    }
+
+    @Override
+    public Integer getAvailable(Long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter != null ? counter.available() : null;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.reservation.reconcile-interval:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // 快照读取期间有事务提交时，无法确定快照是否已包含其扣减，这些商品留到下次校准
+            Map<Long, Long> versions = new HashMap<>();
+            counters.forEach((productId, counter) -> versions.put(productId, counter.version()));
+
+            Set<Long> seen = new HashSet<>();
+            int skipped = 0;
+            for (Product product : productMapper.findStockSnapshot()) {
+                seen.add(product.getId());
+                Long version = versions.get(product.getId());
+                StockCounter counter = counters.get(product.getId());
+                if (version == null || counter == null) {
+                    resync(product.getId(), product.getName(), product.getStock());
+                    continue;
+                }
+                counter.name = product.getName();
+                if (!counter.syncIfUnchanged(product.getStock(), version)) {
+                    skipped++;
+                }
+            }
+            counters.keySet().retainAll(seen);
+            if (skipped > 0) {
+                log.debug("库存计数校准跳过 {} 个正在提交的商品", skipped);
+            }
+        } catch (Exception e) {
+            log.warn("库存计数校准失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 首次出现的商品从数据库加载计数
+     */
+    private void loadMissing(Set<Long> productIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!counters.containsKey(productId)) {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Product product : productMapper.findByIds(missing)) {
+            counters.computeIfAbsent(product.getId(), id -> {
+                StockCounter counter = new StockCounter(product.getName());
+                counter.sync(product.getStock());
+                return counter;
+            });
+        }
+    }
+
+    /**
+     * 事务即将提交：数据库中的扣减随时可能生效
+     */
+    private void beginCommit(Map<Long, Integer> reserved) {
+        reserved.forEach((productId, quantity) -> {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.beginCommit(quantity);
+            }
+        });
+    }
+
+    /**
+     * 事务提交：预占转为实际扣减
+     */
+    private void confirm(Map<Long, Integer> reserved, boolean committing) {
+        reserved.forEach((productId, quantity) -> {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.complete(quantity, false, committing);
+            }
+        });
+    }
+
+    /**
+     * 事务回滚：归还预占的库存
+     */
+    private void release(Map<Long, Integer> reserved, boolean committing) {
+        reserved.forEach((productId, quantity) -> {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.complete(quantity, true, committing);
+            }
+        });
+    }
+
+    private void release(Map<Long, Integer> reserved) {
+        release(reserved, false);
+    }
+
+    /**
+     * 预占句柄，保证预占只被确认或释放一次
+     */
+    private final class ReservationHandle implements Reservation {
+
+        private final Map<Long, Integer> reserved;
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private volatile boolean committing;
+
+        private ReservationHandle(Map<Long, Integer> reserved) {
+            this.reserved = reserved;
+        }
+
+        @Override
+        public void release() {
+            if (completed.compareAndSet(false, true)) {
+                StockReservationServiceImpl.this.release(reserved, committing);
+            }
+        }
+
+        private void beginCommit() {
+            // 已提前释放（回滚到保存点）的预占不会被提交
+            if (!completed.get()) {
+                committing = true;
+                StockReservationServiceImpl.this.beginCommit(reserved);
+            }
+        }
+
+        private void confirm() {
+            if (completed.compareAndSet(false, true)) {
+                StockReservationServiceImpl.this.confirm(reserved, committing);
+            }
+        }
+    }
+
+    /**
+     * 单个商品的库存计数，所有读写在对象锁内完成
+     */
+    private static final class StockCounter {
+
+        /**
+         * 可预占库存 = 数据库库存 - 未提交的预占
+         */
+        private int available;
+
+        /**
+         * 已预占但事务尚未结束的数量
+         */
+        private int pending;
+
+        /**
+         * 其中事务正在提交的数量（数据库中的扣减可能已生效，计数尚未确认）
+         */
+        private int committing;
+
+        /**
+         * 有事务进入提交或结束时加一，用于校准时判断快照期间是否有提交
+         */
+        private long version;
+
+        private volatile String name;
+
+        private StockCounter(String name) {
+            this.name = name;
+        }
+
+        private synchronized boolean tryReserve(int quantity) {
+            if (available < quantity) {
+                return false;
+            }
+            available -= quantity;
+            pending += quantity;
+            return true;
+        }
+
+        private synchronized int available() {
+            return available;
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized void beginCommit(int quantity) {
+            committing += quantity;
+            version++;
+        }
+
+        /**
+         * 事务结束
+         *
+         * @param rollback 是否回滚（回滚时归还可用库存）
+         * @param committing 该预占是否已进入提交
+         */
+        private synchronized void complete(int quantity, boolean rollback, boolean committing) {
+            if (rollback) {
+                available += quantity;
+            }
+            pending -= quantity;
+            if (committing) {
+                this.committing -= quantity;
+            }
+            version++;
+        }
+
+        private synchronized void sync(int stock) {
+            available = stock - pending;
+        }
+
+        /**
+         * 快照读取期间没有事务进入提交或结束、且当前没有正在提交的事务时才按快照校准
+         */
+        private synchronized boolean syncIfUnchanged(int stock, long expectedVersion) {
+            if (version != expectedVersion || committing > 0) {
+                return false;
+            }
+            available = stock - pending;
+            return true;
+        }
+    }
+}
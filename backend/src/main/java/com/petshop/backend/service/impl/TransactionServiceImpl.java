@@ -1,39 +1,107 @@
 package com.petshop.backend.service.impl;
 
+import com.petshop.backend.annotation.Coalescible;
 import com.petshop.backend.dto.MonthlyStatistics;
 import com.petshop.backend.dto.PageResult;
 import com.petshop.backend.dto.TransactionStatistics;
 import com.petshop.backend.entity.Transaction;
+import com.petshop.backend.enums.TotalMode;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.TransactionMapper;
 import com.petshop.backend.service.TransactionService;
+import com.petshop.backend.util.CountCache;
+import com.petshop.backend.util.CursorUtil;
 import com.petshop.backend.util.PaginationUtil;
+import com.petshop.backend.util.StatisticsCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Year;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 财务记录服务实现类
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final String COUNT_TABLE = "transactions";
+
+    /**
+     * 与 MySQL ngram_token_size（默认2）一致
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
     private final TransactionMapper transactionMapper;
+    private final CountCache countCache;
+    private final StatisticsCache statisticsCache;
+
+    @Value("${transaction.search.fulltext-enabled:true}")
+    private boolean fulltextEnabled;
+
+    /**
+     * 全文索引是否存在，首次搜索时检查；检查失败时为 null，下次再查
+     */
+    private volatile Boolean fulltextIndexPresent;
 
     @Override
-    public PageResult<Transaction> findByPage(Integer page, Integer pageSize, String type, String startDate, String endDate, String search) {
+    public PageResult<Transaction> findByPage(Integer page, Integer pageSize, String type, String startDate, String endDate, String search,
+                                              TotalMode totalMode) {
         // 计算偏移量
         Integer offset = PaginationUtil.calculateOffset(page, pageSize);
 
         // 查询数据
-        List<Transaction> list = transactionMapper.findByPage(offset, pageSize, type, startDate, endDate, search);
-        Long total = transactionMapper.countByCondition(type, startDate, endDate, search);
+        String fulltext = toFulltextPhrase(search);
+        List<Transaction> list = transactionMapper.findByPage(offset, pageSize, type, startDate, endDate, search, fulltext);
+        CountCache.Total total = countCache.count(COUNT_TABLE, CountCache.filter(type, startDate, endDate, search),
+                totalMode, () -> transactionMapper.countByCondition(type, startDate, endDate, search, fulltext));
+
+        return new PageResult<>(list, total.value(), total.exact(), page, pageSize, null);
+    }
+
+    @Override
+    public PageResult<Transaction> findByCursor(String cursor, Integer pageSize, String type, String startDate, String endDate, String search) {
+        CursorUtil.Cursor position = CursorUtil.decode(cursor);
+        List<Transaction> rows = transactionMapper.findByCursor(
+                position != null ? position.key() : null, position != null ? position.id() : null,
+                pageSize + 1, type, startDate, endDate, search, toFulltextPhrase(search));
+        return CursorUtil.toPage(rows, pageSize, Transaction::getDate, Transaction::getId);
+    }
+
+    /**
+     * 把搜索词转为全文索引短语查询；全文索引未启用、不存在或词长小于 ngram 词元长度时返回 null，使用 LIKE
+     */
+    private String toFulltextPhrase(String search) {
+        if (!fulltextEnabled || search == null) {
+            return null;
+        }
+        // 短语内只有双引号有特殊含义，去掉即可
+        String term = search.replace("\"", "").trim();
+        if (term.codePointCount(0, term.length()) < NGRAM_TOKEN_SIZE || !hasFulltextIndex()) {
+            return null;
+        }
+        return "\"" + term + "\"";
+    }
 
-        return new PageResult<>(list, total, page, pageSize);
+    /**
+     * 未执行 005 迁移时没有全文索引，MATCH 会直接报错，改用 LIKE；执行迁移后需重启生效
+     */
+    private boolean hasFulltextIndex() {
+        Boolean present = fulltextIndexPresent;
+        if (present == null) {
+            present = transactionMapper.countFulltextIndex() > 0;
+            if (!present) {
+                log.warn("财务记录表缺少全文索引 ft_description（未执行 005 迁移），描述搜索使用 LIKE");
+            }
+            fulltextIndexPresent = present;
+        }
+        return present;
     }
 
     @Override
@@ -48,6 +116,8 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public Transaction create(Transaction transaction) {
         transactionMapper.insert(transaction);
+        countCache.invalidate(COUNT_TABLE);
+        statisticsCache.invalidate(Arrays.asList(transaction.getDate()));
         return transaction;
     }
 
@@ -61,6 +131,9 @@ public class TransactionServiceImpl implements TransactionService {
 
         transaction.setId(id);
         transactionMapper.update(transaction);
+        countCache.invalidate(COUNT_TABLE);
+        // 修改前后日期所在的统计都受影响
+        statisticsCache.invalidate(Arrays.asList(existingTransaction.getDate(), transaction.getDate()));
         return transaction;
     }
 
@@ -73,10 +146,17 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         transactionMapper.deleteById(id);
+        countCache.invalidate(COUNT_TABLE);
+        statisticsCache.invalidate(Arrays.asList(existingTransaction.getDate()));
     }
 
     @Override
+    @Coalescible
     public TransactionStatistics getStatistics(String startDate, String endDate) {
+        return statisticsCache.statistics(startDate, endDate, () -> queryStatistics(startDate, endDate));
+    }
+
+    private TransactionStatistics queryStatistics(String startDate, String endDate) {
         Map<String, Object> stats = transactionMapper.getStatistics(startDate, endDate);
 
         Long totalIncome = ((Number) stats.getOrDefault("totalIncome", 0L)).longValue();
@@ -89,10 +169,11 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Coalescible
     public List<MonthlyStatistics> getMonthlyStatistics(Integer year) {
         // 如果未指定年份，使用当前年份
         int targetYear = (year != null) ? year : Year.now().getValue();
 
-        return transactionMapper.findMonthlyStatistics(targetYear);
+        return statisticsCache.monthly(targetYear, () -> transactionMapper.findMonthlyStatistics(targetYear));
     }
 }
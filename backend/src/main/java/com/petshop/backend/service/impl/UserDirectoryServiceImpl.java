@@ -0,0 +1,115 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.User;
+import com.petshop.backend.mapper.UserMapper;
+import com.petshop.backend.service.UserDirectoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户目录服务实现类
+ * 用户数量很少，不限制条目数；不存在的用户也会缓存（已删除的操作人），避免重复查询。
+ * 失效时版本号加一，加载期间发生过失效的结果不放入缓存
+ */
+@Service
+@RequiredArgsConstructor
+public class UserDirectoryServiceImpl implements UserDirectoryService {
+
+    private final UserMapper userMapper;
+
+    @Value("${user.directory.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public User get(Long id) {
+        User user = load(List.of(id)).get(id);
+        return user != null ? user.copyWithoutPassword() : null;
+    }
+
+    @Override
+    public Map<Long, String> getDisplayNames(Collection<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        load(ids).forEach((id, user) -> names.put(id, user.displayName()));
+        return names;
+    }
+
+    @Override
+    public void evict(Long id) {
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    private void remove(Long id) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * @return 用户ID -> 缓存中的用户（调用方不得修改），不存在的用户不在结果中
+     */
+    private Map<Long, User> load(Collection<Long> ids) {
+        Map<Long, User> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            if (entry == null || now - entry.loadedAt >= ttlSeconds * 1000) {
+                missing.add(id);
+            } else if (entry.user != null) {
+                result.put(id, entry.user);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadVersion = version.get();
+        List<User> loaded = userMapper.findByIds(new ArrayList<>(missing));
+        Map<Long, Entry> fresh = new HashMap<>();
+        missing.forEach(id -> fresh.put(id, new Entry(null, now)));
+        for (User user : loaded) {
+            User cached = user.copyWithoutPassword();
+            fresh.put(user.getId(), new Entry(cached, now));
+            result.put(user.getId(), cached);
+        }
+        // 加载期间有用户被修改时不确定读到的是哪个版本，只返回不缓存
+        synchronized (entries) {
+            if (version.get() == loadVersion) {
+                entries.putAll(fresh);
+            }
+        }
+        return result;
+    }
+
+    private record Entry(User user, long loadedAt) {
+    }
+}
@@ -5,6 +5,7 @@ import com.petshop.backend.entity.User;
 import com.petshop.backend.enums.Role;
 import com.petshop.backend.exception.BusinessException;
 import com.petshop.backend.mapper.UserMapper;
+import com.petshop.backend.service.UserDirectoryService;
 import com.petshop.backend.service.UserService;
 import com.petshop.backend.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
+    private final UserDirectoryService userDirectoryService;
 
     /**
      * 设置默认角色，向后兼容旧数据
@@ -76,6 +78,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userMapper.insert(user);
+        userDirectoryService.evict(user.getId());
         user.setPassword(null);
         return user;
     }
@@ -119,6 +122,7 @@ public class UserServiceImpl implements UserService {
         user.setPassword(existingUser.getPassword());
 
         userMapper.update(user);
+        userDirectoryService.evict(id);
         user.setPassword(null);
         return user;
     }
@@ -132,5 +136,6 @@ public class UserServiceImpl implements UserService {
         }
 
         userMapper.deleteById(id);
+        userDirectoryService.evict(id);
     }
 }
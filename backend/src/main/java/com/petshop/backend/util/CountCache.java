@@ -0,0 +1,122 @@
+package com.petshop.backend.util;
+
+import com.petshop.backend.enums.TotalMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数缓存
+ * 按 表 + 规范化的过滤条件 缓存 COUNT(*) 结果；服务层写入时使该表的全部缓存失效（版本号加一），
+ * 缓存值带版本号，版本一致且未过期才视为精确
+ */
+@Component
+public class CountCache {
+
+    @Value("${page.count-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${page.count-cache.approximate-max-age-seconds:600}")
+    private long approximateMaxAgeSeconds;
+
+    @Value("${page.count-cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 获取总数
+     *
+     * @param table 表名（失效范围）
+     * @param filter 规范化的过滤条件，见 {@link #filter(Object...)}
+     * @param mode 总数模式
+     * @param counter 实际执行 COUNT 的查询
+     * @return 总数，NONE 模式返回 {@link Total#NONE}
+     */
+    public Total count(String table, String filter, TotalMode mode, Supplier<Long> counter) {
+        if (mode == TotalMode.NONE) {
+            return Total.NONE;
+        }
+        String key = table + "?" + filter;
+        long version = version(table).get();
+        long now = System.currentTimeMillis();
+
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            long age = now - cached.computedAt;
+            if (cached.version == version && age < ttlSeconds * 1000) {
+                return new Total(cached.value, true);
+            }
+            if (mode == TotalMode.APPROXIMATE && age < approximateMaxAgeSeconds * 1000) {
+                return new Total(cached.value, false);
+            }
+        }
+
+        // 统计期间发生写入时版本号已变化，缓存值不会被当作精确值
+        Long value = counter.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, version, now));
+        }
+        return new Total(value, true);
+    }
+
+    /**
+     * 使某张表的总数缓存失效；在事务中调用时提交后再失效一次，
+     * 避免提交前其他请求把旧总数重新放入缓存
+     */
+    public void invalidate(String table) {
+        AtomicLong version = version(table);
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * 规范化过滤条件：null 与空字符串等价（SQL 中都不作为条件）
+     */
+    public static String filter(Object... values) {
+        StringBuilder key = new StringBuilder();
+        for (Object value : values) {
+            key.append(value == null ? "" : value).append('\u0001');
+        }
+        return key.toString();
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    /**
+     * 总数及是否精确
+     */
+    public record Total(Long value, Boolean exact) {
+
+        public static final Total NONE = new Total(null, null);
+    }
+
+    private record Entry(Long value, long version, long computedAt) {
+    }
+}
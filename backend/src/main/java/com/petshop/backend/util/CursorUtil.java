@@ -0,0 +1,78 @@
+package com.petshop.backend.util;
+
+import com.petshop.backend.dto.PageResult;
+import com.petshop.backend.exception.BusinessException;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类
+ * 游标由排序键和ID组成（如 sale_date + id），对客户端不透明，
+ * 查询条件为 (排序键, id) 小于游标，深翻页与第一页代价相同
+ */
+@UtilityClass
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 解析游标，空游标表示第一页
+     *
+     * @param cursor 客户端传入的游标
+     * @return 游标位置，第一页返回 null
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(raw.substring(0, index), Long.parseLong(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BusinessException(1001, "cursor 参数无效");
+        }
+    }
+
+    /**
+     * 生成游标
+     */
+    public static String encode(String key, Long id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 组装游标分页结果，rows 需多查一条（pageSize + 1）用于判断是否还有下一页
+     *
+     * @param rows 查询结果
+     * @param pageSize 每页数量
+     * @param keyOf 取排序键
+     * @param idOf 取ID
+     * @return 分页结果（不含总数和页码）
+     */
+    public static <T> PageResult<T> toPage(List<T> rows, Integer pageSize,
+                                           Function<T, String> keyOf, Function<T, Long> idOf) {
+        if (pageSize < 1) {
+            throw new BusinessException(1001, "pageSize 必须大于0");
+        }
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            T last = rows.get(pageSize - 1);
+            nextCursor = encode(keyOf.apply(last), idOf.apply(last));
+        }
+        return new PageResult<>(rows, null, null, null, pageSize, nextCursor);
+    }
+
+    /**
+     * 游标位置
+     */
+    public record Cursor(String key, Long id) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.petshop.backend.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * 数据库不可用标记
+ * 获取连接失败后的一段时间内视为数据库不可用：开单直接暂存、幂等只查内存，
+ * 避免每个请求都等满连接池的获取超时。补录期间持续失败会延长标记，补录成功后清除
+ */
+@Component
+public class DatabaseOutage {
+
+    @Value("${sale.journal.outage-hold-ms:5000}")
+    private long holdMs;
+
+    private volatile long downUntil;
+
+    /**
+     * 异常由连接失败引起时标记数据库不可用
+     *
+     * @return 是否为连接失败
+     */
+    public boolean markIfConnectionFailure(Throwable e) {
+        if (!isConnectionFailure(e)) {
+            return false;
+        }
+        downUntil = System.currentTimeMillis() + holdMs;
+        return true;
+    }
+
+    /**
+     * 数据库已恢复
+     */
+    public void markUp() {
+        downUntil = 0;
+    }
+
+    public boolean isDown() {
+        return downUntil != 0 && System.currentTimeMillis() < downUntil;
+    }
+
+    /**
+     * 是否为获取连接、开启事务或连接中断类的失败
+     */
+    public static boolean isConnectionFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CannotCreateTransactionException
+                    || t instanceof DataAccessResourceFailureException
+                    || t instanceof SQLTransientConnectionException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException
+                    || t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package com.petshop.backend.util;
+
+import com.petshop.backend.exception.BusinessException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 列表接口的字段选择（fields 参数）
+ * 把请求的字段名转换为查询列，只查询、只返回需要的字段；未查询的属性为 null，序列化时被省略。
+ * 列名只能来自构造时给定的白名单，可安全地拼接进 SQL
+ */
+public final class FieldSelector {
+
+    /**
+     * 预设字段集：除大文本列外的全部字段
+     */
+    public static final String SUMMARY = "summary";
+
+    private static final String ID_COLUMN = "id";
+
+    /**
+     * 字段名（驼峰）-> 列名，按查询顺序
+     */
+    private final Map<String, String> columnsByField = new LinkedHashMap<>();
+
+    private final List<String> summaryColumns;
+
+    /**
+     * @param columns 可选的全部列（下划线命名），第一列须为 id
+     * @param largeColumns 其中的大文本列，不包含在 summary 中
+     */
+    public FieldSelector(List<String> columns, Set<String> largeColumns) {
+        List<String> summary = new ArrayList<>();
+        for (String column : columns) {
+            columnsByField.put(toFieldName(column), column);
+            if (!largeColumns.contains(column)) {
+                summary.add(column);
+            }
+        }
+        summaryColumns = List.copyOf(summary);
+    }
+
+    /**
+     * 解析 fields 参数
+     *
+     * @param fields 逗号分隔的字段名，或 summary；为空表示全部字段
+     * @return 要查询的列（总是包含 id），全部字段时返回 null
+     */
+    public List<String> resolve(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        if (fields.trim().equalsIgnoreCase(SUMMARY)) {
+            return summaryColumns;
+        }
+
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add(ID_COLUMN);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String column = columnsByField.get(name);
+            if (column == null) {
+                throw new BusinessException(1001, "不支持的字段: " + name + "，可选: " + String.join(",", columnsByField.keySet()));
+            }
+            columns.add(column);
+        }
+        return new ArrayList<>(columns);
+    }
+
+    private static String toFieldName(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.petshop.backend.util;
+
+import com.petshop.backend.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 锁冲突重试执行器
+ * MySQL 死锁（1213）或锁等待超时（1205）时整个事务已回滚，带抖动的指数退避后重新执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LockRetryExecutor {
+
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${checkout.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${checkout.retry.base-backoff-ms:20}")
+    private long baseBackoffMs;
+
+    private Counter deadlocks;
+    private Counter lockTimeouts;
+    private Counter retries;
+    private Counter exhausted;
+
+    @PostConstruct
+    public void init() {
+        deadlocks = Counter.builder("checkout.lock.deadlocks")
+                .description("开单遇到的死锁次数")
+                .register(meterRegistry);
+        lockTimeouts = Counter.builder("checkout.lock.timeouts")
+                .description("开单遇到的锁等待超时次数")
+                .register(meterRegistry);
+        retries = Counter.builder("checkout.lock.retries")
+                .description("开单因锁冲突重试的次数")
+                .register(meterRegistry);
+        exhausted = Counter.builder("checkout.lock.exhausted")
+                .description("重试次数用尽仍失败的开单数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行操作，锁冲突时重试；action 必须自带完整事务，重试时从头执行
+     *
+     * @param name 操作名称（用于日志）
+     * @param action 要执行的操作
+     * @return 操作结果
+     */
+    public <T> T execute(String name, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (PessimisticLockingFailureException e) {
+                record(e);
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("{} 锁冲突重试 {} 次仍失败: {}", name, attempt, e.getMessage());
+                    throw new BusinessException(503, "系统繁忙，请稍后重试", e);
+                }
+                retries.increment();
+                log.info("{} 锁冲突，第 {} 次重试", name, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * 按错误码分别计数，无法识别错误码的悲观锁异常按死锁计
+     */
+    private void record(PessimisticLockingFailureException e) {
+        if (findSqlErrorCode(e) == ER_LOCK_WAIT_TIMEOUT) {
+            lockTimeouts.increment();
+        } else {
+            deadlocks.increment();
+        }
+    }
+
+    private int findSqlErrorCode(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException && sqlException.getErrorCode() != 0) {
+                return sqlException.getErrorCode();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 退避时间：base * 2^(attempt-1)，乘以 0.5~1.5 的随机系数，避免冲突双方同时重试
+     */
+    private void backoff(int attempt) {
+        long delay = baseBackoffMs << Math.min(attempt - 1, 10);
+        long jittered = (long) (delay * ThreadLocalRandom.current().nextDouble(0.5, 1.5));
+        try {
+            Thread.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "系统繁忙，请稍后重试");
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.petshop.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 内存 n-gram 倒排索引，用于替代 LIKE '%x%' 子串搜索
+ * 按码点（而非 char）切分，中文等非 ASCII 字符额外建单字索引；倒排表为有序 int 数组。
+ * 非线程安全，由调用方加锁
+ */
+public class NgramIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final long UNIGRAM_FLAG = 1L << 42;
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /**
+     * 按ID存放的规范化文本（各字段以 \0 分隔），用于更新时删除旧词项和校验候选结果
+     */
+    private String[] texts = new String[1024];
+
+    private int size;
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id 文档ID
+     * @param fields 要索引的字段，null 视为空串
+     */
+    public void put(int id, String... fields) {
+        remove(id);
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            if (!text.isEmpty()) {
+                text.append(FIELD_SEPARATOR);
+            }
+            if (field != null) {
+                text.append(normalize(field).replace(FIELD_SEPARATOR, ' '));
+            }
+        }
+        ensureCapacity(id);
+        texts[id] = text.toString();
+        for (long gram : grams(texts[id])) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(id);
+        }
+        size++;
+    }
+
+    /**
+     * 删除文档，不存在时忽略
+     */
+    public void remove(int id) {
+        if (id >= texts.length || texts[id] == null) {
+            return;
+        }
+        for (long gram : grams(texts[id])) {
+            IntList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+        texts[id] = null;
+        size--;
+    }
+
+    /**
+     * 子串搜索，任一字段包含关键字（忽略大小写）即命中
+     *
+     * @param keyword 关键字
+     * @param maxResults 结果数上限
+     * @return 升序的文档ID；关键字为单个 ASCII 字符或命中数超过上限时返回 null，表示索引不适用
+     */
+    public int[] search(String keyword, int maxResults) {
+        String query = normalize(keyword);
+        int[] codePoints = query.codePoints().toArray();
+        if (codePoints.length == 0 || query.indexOf(FIELD_SEPARATOR) >= 0) {
+            return null;
+        }
+        if (codePoints.length == 1) {
+            if (codePoints[0] <= 0x7F) {
+                return null;
+            }
+            IntList list = postings.get(UNIGRAM_FLAG | codePoints[0]);
+            if (list == null) {
+                return new int[0];
+            }
+            return list.size > maxResults ? null : Arrays.copyOf(list.data, list.size);
+        }
+
+        // 取查询的全部二元组倒排表，从最短的开始求交集
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 1; i < codePoints.length; i++) {
+            IntList list = postings.get(bigram(codePoints[i - 1], codePoints[i]));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        // 二元组都命中不代表连续出现，长度超过2时需用原文校验
+        boolean verify = codePoints.length > 2;
+        IntList smallest = lists.get(0);
+        int[] result = new int[Math.min(smallest.size, maxResults)];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            int id = smallest.data[i];
+            if (!containsAll(lists, id) || (verify && !texts[id].contains(query))) {
+                continue;
+            }
+            if (count == maxResults) {
+                return null;
+            }
+            result[count++] = id;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 已索引的文档数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 词项数
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    private boolean containsAll(List<IntList> lists, int id) {
+        for (int i = 1; i < lists.size(); i++) {
+            IntList list = lists.get(i);
+            if (Arrays.binarySearch(list.data, 0, list.size, id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 文本的全部词项：同一字段内相邻码点组成的二元组，以及非 ASCII 码点的单字
+     */
+    private Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        int previous = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint == FIELD_SEPARATOR) {
+                previous = -1;
+                continue;
+            }
+            if (codePoint > 0x7F) {
+                grams.add(UNIGRAM_FLAG | codePoint);
+            }
+            if (previous >= 0) {
+                grams.add(bigram(previous, codePoint));
+            }
+            previous = codePoint;
+        }
+        return grams;
+    }
+
+    /**
+     * 码点最大 0x10FFFF（21位），两个码点拼成一个 long
+     */
+    private static long bigram(int first, int second) {
+        return ((long) first << 21) | second;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(id + 1, texts.length + (texts.length >> 1)));
+        }
+    }
+
+    /**
+     * 有序 int 列表
+     */
+    private static final class IntList {
+
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int value) {
+            // ID 自增，通常直接追加到末尾
+            if (size == 0 || data[size - 1] < value) {
+                grow();
+                data[size++] = value;
+                return;
+            }
+            int index = Arrays.binarySearch(data, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            grow();
+            System.arraycopy(data, insertAt, data, insertAt + 1, size - insertAt);
+            data[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(data, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(data, index + 1, data, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void grow() {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.petshop.backend.util;
+
+import java.util.Arrays;
+
+/**
+ * 手机号前缀索引
+ * 手机号按 (位数, 数值) 编码为 long，与客户ID一起存放在两个有序数组中，每个客户约占 20 字节；
+ * 前缀查询对每种可能的位数做一次区间二分查找。非线程安全，由调用方加锁
+ */
+public class PhonePrefixIndex {
+
+    /**
+     * 最多 18 位数字，数值小于 2^60，高 4 位存位数
+     */
+    private static final int MAX_DIGITS = 18;
+    private static final int LENGTH_SHIFT = 60;
+
+    private long[] keys = new long[1024];
+    private int[] ids = new int[1024];
+    private int size;
+
+    /**
+     * 按ID存放的编码，0 表示未收录，用于更新和删除时定位旧位置
+     */
+    private long[] keyById = new long[1024];
+
+    /**
+     * 添加或替换客户手机号，去掉空格和连字符后不是纯数字（或为空）的不收录。
+     * 有序插入需要移动数组，只用于单条变更，全量构建使用 {@link Builder}
+     */
+    public void put(int id, String phone) {
+        remove(id);
+        long key = encode(phone);
+        if (key == 0) {
+            return;
+        }
+        int index = lowerBound(key);
+        while (index < size && keys[index] == key && ids[index] < id) {
+            index++;
+        }
+        if (size == keys.length) {
+            int capacity = size + (size >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        keys[index] = key;
+        ids[index] = id;
+        size++;
+
+        if (id >= keyById.length) {
+            keyById = Arrays.copyOf(keyById, Math.max(id + 1, keyById.length + (keyById.length >> 1)));
+        }
+        keyById[id] = key;
+    }
+
+    /**
+     * 删除客户，不存在时忽略
+     */
+    public void remove(int id) {
+        if (id >= keyById.length || keyById[id] == 0) {
+            return;
+        }
+        long key = keyById[id];
+        for (int index = lowerBound(key); index < size && keys[index] == key; index++) {
+            if (ids[index] == id) {
+                System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+                break;
+            }
+        }
+        keyById[id] = 0;
+    }
+
+    /**
+     * 查询手机号以指定数字开头的客户，按位数、号码升序
+     *
+     * @param prefix 数字前缀
+     * @param limit 最多返回条数
+     * @return 客户ID
+     */
+    public int[] findByPrefix(String prefix, int limit) {
+        int[] result = new int[limit];
+        int count = 0;
+        long value = Long.parseLong(prefix);
+        long span = 1;
+        for (int length = prefix.length(); length <= MAX_DIGITS && count < limit; length++) {
+            long from = ((long) length << LENGTH_SHIFT) | (value * span);
+            long to = ((long) length << LENGTH_SHIFT) | ((value + 1) * span);
+            for (int index = lowerBound(from); index < size && keys[index] < to && count < limit; index++) {
+                result[count++] = ids[index];
+            }
+            span *= 10;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 已收录的手机号数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 全量构建：先追加全部手机号，最后按 (编码, 客户ID) 排序一次，避免逐条有序插入的 O(n²) 数组移动。
+     * 每个客户ID只能添加一次
+     */
+    public static class Builder {
+
+        private long[] keys = new long[1024];
+        private int[] ids = new int[1024];
+        private int size;
+        private int maxId;
+
+        public void add(int id, String phone) {
+            long key = encode(phone);
+            if (key == 0) {
+                return;
+            }
+            if (size == keys.length) {
+                int capacity = size + (size >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            size++;
+            maxId = Math.max(maxId, id);
+        }
+
+        public PhonePrefixIndex build() {
+            sort(keys, ids, size);
+            PhonePrefixIndex index = new PhonePrefixIndex();
+            index.keys = keys;
+            index.ids = ids;
+            index.size = size;
+            index.keyById = new long[Math.max(1024, maxId + 1)];
+            for (int i = 0; i < size; i++) {
+                index.keyById[ids[i]] = keys[i];
+            }
+            return index;
+        }
+
+        /**
+         * 自底向上归并排序，两个数组同步移动
+         */
+        private static void sort(long[] keys, int[] ids, int size) {
+            long[] fromKeys = keys;
+            int[] fromIds = ids;
+            long[] toKeys = new long[size];
+            int[] toIds = new int[size];
+            for (int width = 1; width < size; width <<= 1) {
+                for (int low = 0; low < size; low += width << 1) {
+                    int mid = Math.min(low + width, size);
+                    int high = Math.min(low + (width << 1), size);
+                    int left = low;
+                    int right = mid;
+                    int out = low;
+                    while (left < mid && right < high) {
+                        boolean takeRight = fromKeys[right] < fromKeys[left]
+                                || (fromKeys[right] == fromKeys[left] && fromIds[right] < fromIds[left]);
+                        int from = takeRight ? right++ : left++;
+                        toKeys[out] = fromKeys[from];
+                        toIds[out++] = fromIds[from];
+                    }
+                    System.arraycopy(fromKeys, left, toKeys, out, mid - left);
+                    System.arraycopy(fromIds, left, toIds, out, mid - left);
+                    out += mid - left;
+                    System.arraycopy(fromKeys, right, toKeys, out, high - right);
+                    System.arraycopy(fromIds, right, toIds, out, high - right);
+                }
+                long[] swapKeys = fromKeys;
+                fromKeys = toKeys;
+                toKeys = swapKeys;
+                int[] swapIds = fromIds;
+                fromIds = toIds;
+                toIds = swapIds;
+            }
+            if (fromKeys != keys) {
+                System.arraycopy(fromKeys, 0, keys, 0, size);
+                System.arraycopy(fromIds, 0, ids, 0, size);
+            }
+        }
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long encode(String phone) {
+        if (phone == null) {
+            return 0;
+        }
+        String digits = phone.replace(" ", "").replace("-", "");
+        if (digits.isEmpty() || digits.length() > MAX_DIGITS || !isDigits(digits)) {
+            return 0;
+        }
+        return ((long) digits.length() << LENGTH_SHIFT) | Long.parseLong(digits);
+    }
+
+    /**
+     * 是否为纯 ASCII 数字
+     */
+    public static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,235 @@
+package com.petshop.backend.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 名称模糊匹配：子串、拼音全拼/首字母（可混合，如 hjgl、huangjgl）、少量错字
+ * 名称的拼音在 {@link #compile(String)} 时预先计算，匹配时不再查拼音表
+ */
+public final class PinyinMatcher {
+
+    public static final int SCORE_EXACT = 1000;
+    public static final int SCORE_PREFIX = 900;
+    public static final int SCORE_SUBSTRING = 800;
+    public static final int SCORE_PINYIN_PREFIX = 700;
+    public static final int SCORE_PINYIN = 600;
+    public static final int SCORE_FUZZY = 300;
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinMatcher() {
+    }
+
+    /**
+     * 预处理后的名称
+     *
+     * @param lower 小写名称
+     * @param readings 每个非空白字符的全部读音（多音字有多个，非汉字为其小写形式）
+     * @param pinyin 按第一个读音拼接的全拼，用于错字匹配
+     * @param letters 读音中出现过的字母和数字（位图），用于快速排除拼音不匹配的名称
+     */
+    public record Target(String lower, String[][] readings, String pinyin, long letters) {
+    }
+
+    /**
+     * 预处理名称
+     */
+    public static Target compile(String name) {
+        String lower = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        List<String[]> readings = new ArrayList<>();
+        StringBuilder pinyin = new StringBuilder();
+        long letters = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            String[] charReadings = readingsOf(c);
+            readings.add(charReadings);
+            pinyin.append(charReadings[0]);
+            for (String reading : charReadings) {
+                letters |= letterMask(reading);
+            }
+        }
+        return new Target(lower, readings.toArray(new String[0][]), pinyin.toString(), letters);
+    }
+
+    /**
+     * 规范化查询：转小写并去掉空白
+     */
+    public static String normalizeQuery(String query) {
+        return query.toLowerCase(Locale.ROOT).replaceAll("\\s+", "");
+    }
+
+    /**
+     * 精确类匹配打分：子串优先，其次拼音
+     *
+     * @param target 预处理后的名称
+     * @param query 规范化后的查询
+     * @return 分数，0 表示不匹配
+     */
+    public static int score(Target target, String query) {
+        if (target.lower.equals(query)) {
+            return SCORE_EXACT;
+        }
+        if (target.lower.startsWith(query)) {
+            return SCORE_PREFIX;
+        }
+        if (target.lower.contains(query)) {
+            return SCORE_SUBSTRING;
+        }
+        if (!isAsciiAlphanumeric(query) || (letterMask(query) & ~target.letters) != 0) {
+            return 0;
+        }
+        int start = matchPinyin(target.readings, query);
+        if (start < 0) {
+            return 0;
+        }
+        return start == 0 ? SCORE_PINYIN_PREFIX : SCORE_PINYIN;
+    }
+
+    /**
+     * 错字匹配打分：名称或全拼中存在与查询编辑距离不超过阈值的子串
+     * 查询3-5个字符允许1处错误，6个及以上允许2处
+     *
+     * @return 分数，0 表示不匹配
+     */
+    public static int fuzzyScore(Target target, String query) {
+        int length = query.codePointCount(0, query.length());
+        if (length < 3) {
+            return 0;
+        }
+        int maxDistance = length >= 6 ? 2 : 1;
+        // 每个名称中没有的字母至少需要一次编辑，据此先排除大部分名称
+        if (Long.bitCount(letterMask(query) & ~target.letters) > maxDistance) {
+            return 0;
+        }
+        int distance = Math.min(substringDistance(target.lower, query), substringDistance(target.pinyin, query));
+        return distance <= maxDistance ? SCORE_FUZZY - distance * 100 : 0;
+    }
+
+    /**
+     * 从名称的某个字开始，每个字用某个读音的非空前缀依次匹配查询
+     *
+     * @return 匹配开始的字序号，不匹配返回 -1
+     */
+    private static int matchPinyin(String[][] readings, String query) {
+        int n = readings.length;
+        // 某位置能否匹配完剩余查询与从哪个字开始无关，所有起点共用
+        boolean[][] failed = new boolean[n + 1][query.length() + 1];
+        for (int start = 0; start < n; start++) {
+            if (matchFrom(readings, query, start, 0, failed)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchFrom(String[][] readings, String query, int charIndex, int queryIndex, boolean[][] failed) {
+        if (queryIndex == query.length()) {
+            return true;
+        }
+        if (charIndex == readings.length || failed[charIndex][queryIndex]) {
+            return false;
+        }
+        for (String reading : readings[charIndex]) {
+            if (reading.charAt(0) != query.charAt(queryIndex)) {
+                continue;
+            }
+            int max = Math.min(reading.length(), query.length() - queryIndex);
+            // 优先尝试整个音节
+            for (int k = max; k >= 1; k--) {
+                if (reading.regionMatches(0, query, queryIndex, k)
+                        && matchFrom(readings, query, charIndex + 1, queryIndex + k, failed)) {
+                    return true;
+                }
+            }
+        }
+        failed[charIndex][queryIndex] = true;
+        return false;
+    }
+
+    /**
+     * 查询与文本任意子串的最小编辑距离（Sellers 算法）
+     */
+    private static int substringDistance(String text, String query) {
+        int m = query.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 1; j <= text.length(); j++) {
+            current[0] = 0;
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            best = Math.min(best, current[m]);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private static String[] readingsOf(char c) {
+        String[] pinyins = null;
+        try {
+            pinyins = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            // 格式组合固定，不会发生
+        }
+        if (pinyins == null || pinyins.length == 0) {
+            return new String[]{String.valueOf(c)};
+        }
+        // 去掉声调后重复的读音
+        Set<String> distinct = new LinkedHashSet<>(List.of(pinyins));
+        return distinct.toArray(new String[0]);
+    }
+
+    /**
+     * a-z 占低 26 位，0-9 占随后 10 位，其他字符不计
+     */
+    private static long letterMask(String value) {
+        long mask = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                mask |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                mask |= 1L << (26 + c - '0');
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isAsciiAlphanumeric(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+}
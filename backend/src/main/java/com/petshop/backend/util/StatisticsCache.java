@@ -0,0 +1,182 @@
+package com.petshop.backend.util;
+
+import com.petshop.backend.dto.MonthlyStatistics;
+import com.petshop.backend.dto.TransactionStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 财务统计结果缓存
+ * 按 (开始日期, 结束日期) 原始条件缓存收支统计，按年份缓存月度统计；财务记录写入时只使日期范围覆盖该记录日期的结果失效，
+ * 历史年份的统计在补录/修改历史记录前一直有效。
+ * 范围按天比较（结束日期当天全部视为覆盖），宁可多失效也不遗漏
+ */
+@Component
+public class StatisticsCache {
+
+    @Value("${transaction.statistics-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transaction.statistics-cache.max-entries:500}")
+    private int maxEntries;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 获取收支统计
+     *
+     * @param startDate 开始日期，为空表示不限
+     * @param endDate 结束日期，为空表示不限
+     * @param loader 未命中时执行的统计查询
+     */
+    public TransactionStatistics statistics(String startDate, String endDate, Supplier<TransactionStatistics> loader) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = toDay(startDate);
+            to = toDay(endDate);
+        } catch (DateTimeParseException e) {
+            // 无法判断范围的条件不缓存，交给数据库处理
+            return loader.get();
+        }
+        // 统计 SQL 直接用原始字符串和 DATETIME 比较（"2025-01-31" 只到当天零点），键必须区分原始字符串，
+        // 按天解析的日期只用于失效判断
+        return get("range:" + normalize(startDate) + "~" + normalize(endDate), from, to, loader, StatisticsCache::copy);
+    }
+
+    /**
+     * 获取某年的月度统计
+     */
+    public List<MonthlyStatistics> monthly(int year, Supplier<List<MonthlyStatistics>> loader) {
+        return get("year:" + year, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31), loader,
+                list -> new ArrayList<>(list.stream().map(StatisticsCache::copy).toList()));
+    }
+
+    /**
+     * 使覆盖这些日期的统计失效（在事务中调用时提交后再失效一次）
+     *
+     * @param dates 新增、修改或删除的财务记录日期（修改时应包含修改前后的日期）
+     */
+    public void invalidate(Collection<String> dates) {
+        remove(dates);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(dates);
+                }
+            });
+        }
+    }
+
+    private <T> T get(String key, LocalDate from, LocalDate to, Supplier<T> loader, UnaryOperator<T> copier) {
+        if (!enabled) {
+            return loader.get();
+        }
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) cached.value;
+                return copier.apply(value);
+            }
+        }
+
+        long loadVersion = version.get();
+        T value = loader.get();
+        synchronized (entries) {
+            // 统计期间有记录写入时不确定结果是否包含该记录，只返回不缓存
+            if (version.get() == loadVersion) {
+                entries.put(key, new Entry(copier.apply(value), from, to));
+            }
+        }
+        return value;
+    }
+
+    private void remove(Collection<String> dates) {
+        List<LocalDate> days = new ArrayList<>(dates.size());
+        boolean all = false;
+        for (String date : dates) {
+            try {
+                LocalDate day = toDay(date);
+                if (day != null) {
+                    days.add(day);
+                }
+            } catch (DateTimeParseException e) {
+                all = true;
+            }
+        }
+
+        synchronized (entries) {
+            version.incrementAndGet();
+            if (all) {
+                entries.clear();
+                return;
+            }
+            entries.values().removeIf(entry -> days.stream().anyMatch(entry::covers));
+        }
+    }
+
+    /**
+     * 缓存键中的条件：原始字符串去掉首尾空白，null 记为空串
+     */
+    private static String normalize(String date) {
+        return date == null ? "" : date.trim();
+    }
+
+    /**
+     * 取日期部分，兼容 yyyy-MM-dd 和 yyyy-MM-dd HH:mm:ss
+     */
+    private static LocalDate toDay(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        String trimmed = date.trim();
+        return LocalDate.parse(trimmed.length() > 10 ? trimmed.substring(0, 10) : trimmed);
+    }
+
+    private static TransactionStatistics copy(TransactionStatistics stats) {
+        return new TransactionStatistics(stats.getTotalIncome(), stats.getTotalExpense(), stats.getNetIncome(),
+                stats.getIncomeCount(), stats.getExpenseCount());
+    }
+
+    private static MonthlyStatistics copy(MonthlyStatistics stats) {
+        MonthlyStatistics copy = new MonthlyStatistics();
+        copy.setYearMonth(stats.getYearMonth());
+        copy.setTotalIncome(stats.getTotalIncome());
+        copy.setTotalExpense(stats.getTotalExpense());
+        copy.setNetIncome(stats.getNetIncome());
+        return copy;
+    }
+
+    /**
+     * @param from 范围开始日期，null 表示不限
+     * @param to 范围结束日期（含当天），null 表示不限
+     */
+    private record Entry(Object value, LocalDate from, LocalDate to) {
+
+        boolean covers(LocalDate day) {
+            return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+        }
+    }
+}
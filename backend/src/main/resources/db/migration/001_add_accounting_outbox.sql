@@ -0,0 +1,16 @@
+-- ============================================
+-- 财务记账待同步表迁移脚本
+-- ============================================
+-- 用途：开单时只写入待同步记录，由后台任务批量生成财务记录
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+CREATE TABLE IF NOT EXISTS `accounting_outbox` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `sale_id` BIGINT UNSIGNED NOT NULL COMMENT '待记账的销售记录ID',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_sale_id` (`sale_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='财务记账待同步表';
@@ -0,0 +1,16 @@
+-- ============================================
+-- 幂等键表迁移脚本
+-- ============================================
+-- 用途：保存带 Idempotency-Key 请求的首次执行结果，重启后重试仍返回原结果
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+CREATE TABLE IF NOT EXISTS `idempotency_keys` (
+  `request_key` VARCHAR(191) NOT NULL COMMENT '作用域+幂等键',
+  `response` TEXT NOT NULL COMMENT '首次执行结果（JSON）',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`request_key`),
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='请求幂等键表';
@@ -0,0 +1,21 @@
+-- ============================================
+-- 开单补录冲突表迁移脚本
+-- ============================================
+-- 用途：数据库不可用期间暂存在本地的开单，恢复后补录失败（如库存不足）时记录在此，由管理员处理
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+CREATE TABLE IF NOT EXISTS `sale_journal_conflicts` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `journal_seq` BIGINT UNSIGNED NOT NULL COMMENT '本地暂存序号',
+  `operator_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '开单操作人ID',
+  `request` TEXT NOT NULL COMMENT '开单请求（JSON）',
+  `error_code` INT NOT NULL COMMENT '补录失败错误码',
+  `error_message` VARCHAR(500) NOT NULL COMMENT '补录失败原因',
+  `accepted_at` DATETIME NOT NULL COMMENT '暂存时间',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_journal_seq` (`journal_seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='开单补录冲突表';
@@ -0,0 +1,29 @@
+-- ============================================
+-- 游标分页索引迁移脚本
+-- ============================================
+-- 用途：按客户查询消费记录、余额变动历史时，索引顺序与 (时间, id) 倒序一致，游标分页无需排序
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+-- MySQL 不支持 CREATE INDEX IF NOT EXISTS，先查询再创建，便于重复执行
+SET @exists = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'consumption_records'
+                 AND index_name = 'idx_customer_date');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `consumption_records` ADD KEY `idx_customer_date` (`customer_id`, `date`)',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @exists = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'balance_transactions'
+                 AND index_name = 'idx_customer_created');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `balance_transactions` ADD KEY `idx_customer_created` (`customer_id`, `created_at`)',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
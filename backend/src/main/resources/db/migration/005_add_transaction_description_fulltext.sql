@@ -0,0 +1,24 @@
+-- ============================================
+-- 财务记录描述全文索引迁移脚本
+-- ============================================
+-- 用途：按描述搜索财务记录时使用 ngram 全文索引（MATCH ... AGAINST），替代 LIKE '%x%' 全表扫描
+-- 注意：ngram 词元长度取 ngram_token_size（默认2），需在 MySQL 启动参数中设置；
+--       大表建索引耗时较长（数百万行约需数分钟），建议在低峰期执行
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+-- 默认停用词表会让包含 a、i 等停用词的词元不进入索引，影响拼音和英文描述的搜索
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- MySQL 不支持 CREATE INDEX IF NOT EXISTS，先查询再创建，便于重复执行
+SET @exists = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'transactions'
+                 AND index_name = 'ft_description');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `transactions` ADD FULLTEXT KEY `ft_description` (`description`) WITH PARSER ngram',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
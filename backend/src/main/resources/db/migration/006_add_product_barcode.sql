@@ -0,0 +1,30 @@
+-- ============================================
+-- 商品条码迁移脚本
+-- ============================================
+-- 用途：商品增加条码列，收银台扫码时按条码查询商品；条码唯一，未录入条码的商品为 NULL
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+-- MySQL 不支持 ADD COLUMN IF NOT EXISTS，先查询再添加，便于重复执行
+SET @exists = (SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'products'
+                 AND column_name = 'barcode');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `products` ADD COLUMN `barcode` VARCHAR(64) DEFAULT NULL COMMENT ''商品条码'' AFTER `name`',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 唯一索引允许多个 NULL
+SET @exists = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'products'
+                 AND index_name = 'uk_barcode');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `products` ADD UNIQUE KEY `uk_barcode` (`barcode`)',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,30 @@
+-- ============================================
+-- 开单暂存补录去重迁移脚本
+-- ============================================
+-- 用途：销售记录增加暂存键，补录时先按暂存键检查该笔是否已写入，避免重复补录造成重复扣库存、扣余额和记账
+-- 版本：1.1.0
+-- ============================================
+
+USE `pet_shop_3_0`;
+
+-- MySQL 不支持 ADD COLUMN IF NOT EXISTS，先查询再添加，便于重复执行
+SET @exists = (SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'sales'
+                 AND column_name = 'journal_key');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `sales` ADD COLUMN `journal_key` CHAR(36) DEFAULT NULL COMMENT ''本地暂存键（补录的销售）'' AFTER `paid_with_balance`',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 唯一索引允许多个 NULL（正常开单的销售）
+SET @exists = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'sales'
+                 AND index_name = 'uk_journal_key');
+SET @sql = IF(@exists = 0,
+              'ALTER TABLE `sales` ADD UNIQUE KEY `uk_journal_key` (`journal_key`)',
+              'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -6,6 +6,9 @@
 CREATE DATABASE IF NOT EXISTS `pet_shop_3_0` DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 USE `pet_shop_3_0`;
 
+-- 财务记录描述的 ngram 全文索引不使用默认英文停用词表
+SET SESSION innodb_ft_enable_stopword = OFF;
+
 -- ============================================
 -- 1. 用户表 (users)
 -- ============================================
@@ -30,6 +33,7 @@ DROP TABLE IF EXISTS `products`;
 CREATE TABLE `products` (
   `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '商品ID',
   `name` VARCHAR(200) NOT NULL COMMENT '商品名称',
+  `barcode` VARCHAR(64) DEFAULT NULL COMMENT '商品条码',
   `price` BIGINT NOT NULL COMMENT '价格（单位：分）',
   `stock` INT NOT NULL DEFAULT 0 COMMENT '库存数量',
   `image_url` VARCHAR(500) NOT NULL COMMENT '商品图片URL',
@@ -37,6 +41,7 @@ CREATE TABLE `products` (
   `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_barcode` (`barcode`),
   KEY `idx_name` (`name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='商品表';
 
@@ -84,6 +89,7 @@ CREATE TABLE `consumption_records` (
   PRIMARY KEY (`id`),
   KEY `idx_customer_id` (`customer_id`),
   KEY `idx_date` (`date`),
+  KEY `idx_customer_date` (`customer_id`, `date`),
   KEY `idx_sale_id` (`sale_id`),
   CONSTRAINT `fk_consumption_records_sale` FOREIGN KEY (`sale_id`) REFERENCES `sales` (`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='消费记录表';
@@ -104,7 +110,8 @@ CREATE TABLE `balance_transactions` (
   `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`),
   KEY `idx_customer_id` (`customer_id`),
-  KEY `idx_created_at` (`created_at`)
+  KEY `idx_created_at` (`created_at`),
+  KEY `idx_customer_created` (`customer_id`, `created_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='会员余额变动历史表';
 
 -- ============================================
@@ -121,7 +128,8 @@ CREATE TABLE `transactions` (
   `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
   KEY `idx_type` (`type`),
-  KEY `idx_date` (`date`)
+  KEY `idx_date` (`date`),
+  FULLTEXT KEY `ft_description` (`description`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='财务记录表';
 
 -- ============================================
@@ -137,9 +145,11 @@ CREATE TABLE `sales` (
   `recorded_to_accounting` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否已记账（0否1是）',
   `transaction_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '关联的财务记录ID',
   `paid_with_balance` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否使用余额支付（0否1是）',
+  `journal_key` CHAR(36) DEFAULT NULL COMMENT '本地暂存键（补录的销售）',
   `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_journal_key` (`journal_key`),
   KEY `idx_customer_id` (`customer_id`),
   KEY `idx_sale_date` (`sale_date`),
   KEY `idx_transaction_id` (`transaction_id`),
@@ -167,6 +177,47 @@ CREATE TABLE `sale_items` (
   CONSTRAINT `fk_sale_items_product` FOREIGN KEY (`product_id`) REFERENCES `products` (`id`) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='商品销售项表';
 
+-- ============================================
+-- 9. 财务记账待同步表 (accounting_outbox)
+-- ============================================
+DROP TABLE IF EXISTS `accounting_outbox`;
+CREATE TABLE `accounting_outbox` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `sale_id` BIGINT UNSIGNED NOT NULL COMMENT '待记账的销售记录ID',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_sale_id` (`sale_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='财务记账待同步表';
+
+-- ============================================
+-- 10. 请求幂等键表 (idempotency_keys)
+-- ============================================
+DROP TABLE IF EXISTS `idempotency_keys`;
+CREATE TABLE `idempotency_keys` (
+  `request_key` VARCHAR(191) NOT NULL COMMENT '作用域+幂等键',
+  `response` TEXT NOT NULL COMMENT '首次执行结果（JSON）',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`request_key`),
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='请求幂等键表';
+
+-- ============================================
+-- 11. 开单补录冲突表 (sale_journal_conflicts)
+-- ============================================
+DROP TABLE IF EXISTS `sale_journal_conflicts`;
+CREATE TABLE `sale_journal_conflicts` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `journal_seq` BIGINT UNSIGNED NOT NULL COMMENT '本地暂存序号',
+  `operator_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '开单操作人ID',
+  `request` TEXT NOT NULL COMMENT '开单请求（JSON）',
+  `error_code` INT NOT NULL COMMENT '补录失败错误码',
+  `error_message` VARCHAR(500) NOT NULL COMMENT '补录失败原因',
+  `accepted_at` DATETIME NOT NULL COMMENT '暂存时间',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_journal_seq` (`journal_seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='开单补录冲突表';
+
 -- ============================================
 -- 初始化数据
 -- ============================================
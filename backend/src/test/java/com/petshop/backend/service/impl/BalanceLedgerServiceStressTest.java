@@ -0,0 +1,178 @@
+package com.petshop.backend.service.impl;
+
+import com.petshop.backend.entity.BalanceTransaction;
+import com.petshop.backend.exception.BusinessException;
+import com.petshop.backend.service.BalanceLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 会员余额账本并发压测
+ * 多线程同时对同一批会员充值/扣减，校验没有丢失更新：最终余额等于成功变动之和，
+ * 每条变动记录的前后余额首尾相接，并输出每个会员的吞吐量。
+ * 需要真实 MySQL（已执行 schema.sql 和全部迁移），通过环境变量指定，未设置时跳过：
+ * PETSHOP_IT_DB_URL、PETSHOP_IT_DB_USERNAME、PETSHOP_IT_DB_PASSWORD。
+ * 规模可用 -Dstress.members / -Dstress.threads / -Dstress.operations 调整（每个会员每个线程的操作数）
+ */
+@EnabledIfEnvironmentVariable(named = "PETSHOP_IT_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${PETSHOP_IT_DB_URL}",
+        "spring.datasource.username=${PETSHOP_IT_DB_USERNAME:root}",
+        "spring.datasource.password=${PETSHOP_IT_DB_PASSWORD:root}",
+        "sale.journal.enabled=false"
+})
+class BalanceLedgerServiceStressTest {
+
+    private static final int MEMBERS = Integer.getInteger("stress.members", 4);
+    private static final int THREADS = Integer.getInteger("stress.threads", 8);
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 200);
+
+    /** 初始余额较小，让扣减经常碰到余额不足，覆盖条件更新失败的路径 */
+    private static final long INITIAL_BALANCE = 500;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> customerIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long customerId : customerIds) {
+            jdbcTemplate.update("DELETE FROM balance_transactions WHERE customer_id = ?", customerId);
+            jdbcTemplate.update("DELETE FROM customers WHERE id = ?", customerId);
+        }
+    }
+
+    @Test
+    void concurrentChangesOnSameMemberAreNotLost() throws Exception {
+        for (int i = 0; i < MEMBERS; i++) {
+            customerIds.add(createMember("压测会员" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * MEMBERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<Future<long[]>>> futures = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            List<Future<long[]>> memberFutures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                memberFutures.add(executor.submit(() -> {
+                    start.await();
+                    return run(customerId);
+                }));
+            }
+            futures.add(memberFutures);
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "压测未在限定时间内完成");
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        for (int i = 0; i < customerIds.size(); i++) {
+            Long customerId = customerIds.get(i);
+            long applied = 0;
+            long succeeded = 0;
+            long rejected = 0;
+            for (Future<long[]> future : futures.get(i)) {
+                long[] result = future.get();
+                applied += result[0];
+                succeeded += result[1];
+                rejected += result[2];
+            }
+
+            Long balance = jdbcTemplate.queryForObject("SELECT balance FROM customers WHERE id = ?", Long.class, customerId);
+            assertEquals(INITIAL_BALANCE + applied, balance, "会员 " + customerId + " 的余额丢失了更新");
+            assertChained(customerId, succeeded, balance);
+
+            System.out.printf("会员 %d: 成功 %d 次, 余额不足 %d 次, 最终余额 %d, 吞吐 %.1f 次/秒%n",
+                    customerId, succeeded, rejected, balance, (succeeded + rejected) / seconds);
+        }
+    }
+
+    /**
+     * 单个线程对一个会员随机充值/扣减
+     *
+     * @return [成功变动金额之和, 成功次数, 余额不足次数]
+     */
+    private long[] run(Long customerId) {
+        long applied = 0;
+        long succeeded = 0;
+        long rejected = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long amount = 1 + random.nextInt(100);
+            boolean deduct = random.nextBoolean();
+            try {
+                BalanceTransaction transaction = balanceLedgerService.apply(customerId,
+                        deduct ? BalanceTransaction.TransactionType.DEDUCT : BalanceTransaction.TransactionType.RECHARGE,
+                        amount, "并发压测", null);
+                long delta = deduct ? -amount : amount;
+                assertEquals(transaction.getBalanceBefore() + delta, transaction.getBalanceAfter());
+                assertTrue(transaction.getBalanceAfter() >= 0, "余额出现负数");
+                applied += delta;
+                succeeded++;
+            } catch (BusinessException e) {
+                assertEquals(4002, e.getCode().intValue(), e.getMessage());
+                rejected++;
+            }
+        }
+        return new long[]{applied, succeeded, rejected};
+    }
+
+    /**
+     * 同一会员的变动在行锁下串行执行，按记录ID排序后每条的变动前余额应等于上一条的变动后余额
+     */
+    private void assertChained(Long customerId, long expectedCount, long finalBalance) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT balance_before, balance_after FROM balance_transactions WHERE customer_id = ? ORDER BY id",
+                customerId);
+        assertEquals(expectedCount, rows.size(), "会员 " + customerId + " 的变动记录数不一致");
+
+        long previous = INITIAL_BALANCE;
+        for (Map<String, Object> row : rows) {
+            long before = ((Number) row.get("balance_before")).longValue();
+            long after = ((Number) row.get("balance_after")).longValue();
+            assertEquals(previous, before, "会员 " + customerId + " 的变动记录前后余额不连续");
+            previous = after;
+        }
+        assertEquals(finalBalance, previous);
+    }
+
+    private Long createMember(String petName) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO customers (pet_name, owner_name, phone, is_member, member_level, balance) "
+                            + "VALUES (?, '压测', '00000000000', 1, 1, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, petName);
+            statement.setLong(2, INITIAL_BALANCE);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
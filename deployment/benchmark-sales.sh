@@ -0,0 +1,316 @@
+#!/bin/bash
+
+# ==========================================
+# MyPetShop3.0 开单压测脚本
+# ==========================================
+# 用途：对 POST /sales 压测，输出吞吐量、p50/p99/p999 延迟和每单 SQL 语句数，
+#       与基线比较，退化超过容忍度时以非 0 退出
+# 使用：先启动服务（docker-compose up -d），再执行
+#       ./benchmark-sales.sh                      # 与基线比较
+#       UPDATE_BASELINE=1 ./benchmark-sales.sh    # 以本次结果作为新基线
+#       KEEP_DATA=1 ./benchmark-sales.sh          # 保留压测数据（默认结束后删除）
+# 注意：会创建压测商品、会员、充值和销售记录，结束后通过 MySQL 容器和接口删除；
+#       基线与机器相关，不随代码提交，没有基线时以非 0 退出。请勿在生产环境执行
+# ==========================================
+
+set -e
+
+# 颜色输出
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+log_info() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+log_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+log_warning() {
+    echo -e "${YELLOW}[WARNING]${NC} $1"
+}
+
+log_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+# 获取脚本所在目录
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+cd "$SCRIPT_DIR"
+
+if [ -f .env ]; then
+    source .env
+fi
+
+# 配置
+BASE_URL=${BASE_URL:-http://localhost:8080/api/v1}
+BENCH_USER=${BENCH_USER:-admin}                    # 登录用户（需为管理员，用于创建压测数据）
+REQUESTS=${REQUESTS:-200}                          # 每组场景的开单数
+CONCURRENCY_LEVELS=${CONCURRENCY_LEVELS:-"1 2 4"}  # 并发数列表
+BASKET_SIZES=${BASKET_SIZES:-"1 3 10"}             # 每单商品行数列表
+MEMBER_RATIO=${MEMBER_RATIO:-50}                   # 会员余额支付占比（%）
+ACCOUNTING_RATIO=${ACCOUNTING_RATIO:-50}           # 同步财务记账占比（%）
+PRODUCT_COUNT=${PRODUCT_COUNT:-20}                 # 压测商品数
+TOLERANCE=${TOLERANCE:-20}                         # 允许的退化幅度（%）
+BASELINE_FILE=${BASELINE_FILE:-benchmark-baseline.txt}
+MYSQL_CONTAINER=${MYSQL_CONTAINER:-petshop-mysql}
+MYSQL_ROOT_PASSWORD=${MYSQL_ROOT_PASSWORD:-root}
+MYSQL_DATABASE=${MYSQL_DATABASE:-pet_shop_3_0}     # 被测服务使用的数据库，清理压测数据时使用
+
+WORK_DIR=$(mktemp -d)
+PRODUCT_IDS=()
+MEMBER_ID=""
+trap 'cleanup; rm -rf "$WORK_DIR"' EXIT
+
+# ==========================================
+# 工具函数
+# ==========================================
+
+# 从 JSON 响应中取第一个 id
+json_id() {
+    grep -o '"id":[0-9]*' | head -1 | cut -d: -f2
+}
+
+api_post() {
+    curl -s -X POST "$BASE_URL$1" \
+        -H "Authorization: Bearer $TOKEN" \
+        -H "Content-Type: application/json" \
+        -d "$2"
+}
+
+api_delete() {
+    curl -s -X DELETE "$BASE_URL$1" -H "Authorization: Bearer $TOKEN"
+}
+
+mysql_exec() {
+    docker exec -i "$MYSQL_CONTAINER" mysql -uroot -p"$MYSQL_ROOT_PASSWORD" \
+        --silent --skip-column-names --default-character-set=utf8mb4 "$MYSQL_DATABASE" "$@" 2>/dev/null
+}
+
+# 读取 MySQL 累计语句数：select insert update delete（容器不可用时输出空）
+sql_counters() {
+    docker exec "$MYSQL_CONTAINER" mysql -uroot -p"$MYSQL_ROOT_PASSWORD" --silent --skip-column-names \
+        -e "SHOW GLOBAL STATUS WHERE Variable_name IN ('Com_select','Com_insert','Com_update','Com_delete')" \
+        2>/dev/null | awk '{ v[$1] = $2 } END { if (NR > 0) print v["Com_select"], v["Com_insert"], v["Com_update"], v["Com_delete"] }'
+}
+
+# 取结果行中的字段值，如 field "$line" tps
+field() {
+    echo "$1" | tr ' ' '\n' | grep "^$2=" | cut -d= -f2
+}
+
+# 取排序后第 p 分位的值（输入为每行一个数）
+percentile() {
+    sort -n | awk -v p="$1" '{ a[NR] = $1 } END { if (NR == 0) { print 0; exit } i = int(NR * p + 0.999999); if (i < 1) i = 1; if (i > NR) i = NR; print a[i] }'
+}
+
+# 删除压测数据：销售记录没有删除接口，销售、余额变动等直接在库中删除；
+# 自动记账的财务记录、商品和会员通过接口删除，使服务端的统计缓存、商品缓存和搜索索引同步失效
+cleanup() {
+    if [ "$KEEP_DATA" = "1" ] || { [ ${#PRODUCT_IDS[@]} -eq 0 ] && [ -z "$MEMBER_ID" ]; }; then
+        return
+    fi
+    log_info "清理压测数据"
+    local products member sales
+    products=$(IFS=,; echo "${PRODUCT_IDS[*]:-0}")
+    member=${MEMBER_ID:-0}
+    sales="SELECT sale_id FROM sale_items WHERE product_id IN ($products)"
+
+    if ! mysql_exec -e "SELECT 1" > /dev/null; then
+        log_warning "无法访问 MySQL 容器 $MYSQL_CONTAINER，请手动删除商品 #$products 的销售记录和会员 #$member"
+        return
+    fi
+
+    # 等待异步记账完成，避免删除后又写入财务记录
+    for _ in $(seq 1 30); do
+        [ "$(mysql_exec -e "SELECT COUNT(*) FROM accounting_outbox WHERE sale_id IN ($sales)")" = "0" ] && break
+        sleep 1
+    done
+    for id in $(mysql_exec -e "SELECT DISTINCT transaction_id FROM sales WHERE id IN ($sales) AND transaction_id IS NOT NULL"); do
+        api_delete "/transactions/$id" > /dev/null
+    done
+    mysql_exec -e "
+        CREATE TEMPORARY TABLE bench_sales AS $sales;
+        DELETE FROM accounting_outbox WHERE sale_id IN (SELECT sale_id FROM bench_sales);
+        DELETE FROM consumption_records WHERE sale_id IN (SELECT sale_id FROM bench_sales) OR customer_id = $member;
+        DELETE FROM sales WHERE id IN (SELECT sale_id FROM bench_sales);
+        DELETE FROM balance_transactions WHERE customer_id = $member;" \
+        || log_warning "删除压测销售记录失败"
+    for id in "${PRODUCT_IDS[@]}"; do
+        api_delete "/products/$id" > /dev/null
+    done
+    if [ -n "$MEMBER_ID" ]; then
+        api_delete "/customers/$MEMBER_ID" > /dev/null
+    fi
+    log_success "压测数据已删除"
+}
+
+# ==========================================
+# 1. 准备压测数据
+# ==========================================
+log_info "=================================="
+log_info "准备压测数据: $BASE_URL"
+log_info "=================================="
+
+TOKEN=$(curl -s -X POST "$BASE_URL/auth/login" -H "Content-Type: application/json" \
+    -d "{\"username\":\"$BENCH_USER\"}" | grep -o '"accessToken":"[^"]*"' | cut -d'"' -f4)
+if [ -z "$TOKEN" ]; then
+    log_error "登录失败，请检查服务是否启动以及用户 $BENCH_USER 是否存在"
+    exit 1
+fi
+
+for i in $(seq 1 "$PRODUCT_COUNT"); do
+    id=$(api_post /products "{\"name\":\"压测商品-$i\",\"price\":1000,\"stock\":100000000,\"imageUrl\":\"-\"}" | json_id)
+    if [ -z "$id" ]; then
+        log_error "创建压测商品失败"
+        exit 1
+    fi
+    PRODUCT_IDS+=("$id")
+done
+
+PHONE="139$(printf '%08d' $(((RANDOM * 32768 + RANDOM) % 100000000)))"
+MEMBER_ID=$(api_post /customers "{\"petName\":\"压测\",\"ownerName\":\"压测会员\",\"phone\":\"$PHONE\",\"isMember\":true,\"memberLevel\":1}" | json_id)
+if [ -z "$MEMBER_ID" ]; then
+    log_error "创建压测会员失败"
+    exit 1
+fi
+api_post "/customers/$MEMBER_ID/balance/recharge" '{"amount":1000000000000,"description":"压测充值"}' > /dev/null
+log_success "已创建 ${#PRODUCT_IDS[@]} 个商品、会员 #$MEMBER_ID"
+
+if [ -z "$(sql_counters)" ]; then
+    log_warning "无法访问 MySQL 容器 $MYSQL_CONTAINER，不统计每单 SQL 语句数"
+fi
+
+# ==========================================
+# 2. 执行压测
+# ==========================================
+
+# 生成一组请求体文件
+generate_requests() {
+    local basket=$1 dir=$2
+    mkdir -p "$dir"
+    for n in $(seq 1 "$REQUESTS"); do
+        local offset=$((RANDOM % PRODUCT_COUNT)) items="" total=0
+        for k in $(seq 0 $((basket - 1))); do
+            local pid=${PRODUCT_IDS[$(((offset + k) % PRODUCT_COUNT))]}
+            [ -n "$items" ] && items="$items,"
+            items="$items{\"productId\":$pid,\"quantity\":1,\"unitPrice\":1000}"
+            total=$((total + 1000))
+        done
+        local customer="null" name="散客" balance=false accounting=false
+        if [ $((RANDOM % 100)) -lt "$MEMBER_RATIO" ]; then
+            customer=$MEMBER_ID; name="压测会员"; balance=true
+        fi
+        if [ $((RANDOM % 100)) -lt "$ACCOUNTING_RATIO" ]; then
+            accounting=true
+        fi
+        echo "{\"customerId\":$customer,\"customerName\":\"$name\",\"items\":[$items],\"totalAmount\":$total,\"saleDate\":\"$(date '+%Y-%m-%d %H:%M:%S')\",\"recordToAccounting\":$accounting,\"useBalance\":$balance}" \
+            > "$dir/$n.json"
+    done
+}
+
+# 单个请求：输出 "成功标记 耗时(ms)"
+export BASE_URL TOKEN
+run_one() {
+    local out
+    out=$(curl -s -X POST "$BASE_URL/sales" \
+        -H "Authorization: Bearer $TOKEN" \
+        -H "Content-Type: application/json" \
+        --data @"$1" -w '\n%{time_total}')
+    local seconds=${out##*$'\n'}
+    if echo "$out" | grep -q '"code":200'; then
+        echo "ok $(awk -v s="$seconds" 'BEGIN { printf "%.3f", s * 1000 }')"
+    else
+        echo "fail 0"
+    fi
+}
+export -f run_one
+
+RESULTS="$WORK_DIR/results.txt"
+: > "$RESULTS"
+
+for basket in $BASKET_SIZES; do
+    if [ "$basket" -gt "$PRODUCT_COUNT" ]; then
+        log_warning "每单商品行数 $basket 超过压测商品数 $PRODUCT_COUNT，跳过"
+        continue
+    fi
+    for concurrency in $CONCURRENCY_LEVELS; do
+        dir="$WORK_DIR/b${basket}_c${concurrency}"
+        generate_requests "$basket" "$dir"
+
+        before=$(sql_counters)
+        start=$(date +%s%N)
+        ls "$dir"/*.json | xargs -P "$concurrency" -I{} bash -c 'run_one "$@"' _ {} > "$dir/latency.txt"
+        end=$(date +%s%N)
+        after=$(sql_counters)
+
+        ok=$(grep -c '^ok' "$dir/latency.txt" || true)
+        failed=$(grep -c '^fail' "$dir/latency.txt" || true)
+        elapsed_ms=$(((end - start) / 1000000))
+        tps=$(awk -v n="$ok" -v ms="$elapsed_ms" 'BEGIN { printf "%.1f", (ms > 0 ? n * 1000 / ms : 0) }')
+        grep '^ok' "$dir/latency.txt" | cut -d' ' -f2 > "$dir/ok.txt" || true
+        p50=$(percentile 0.50 < "$dir/ok.txt")
+        p99=$(percentile 0.99 < "$dir/ok.txt")
+        p999=$(percentile 0.999 < "$dir/ok.txt")
+
+        sql="-"
+        if [ -n "$before" ] && [ -n "$after" ] && [ "$ok" -gt 0 ]; then
+            sql=$(echo "$before $after" | awk -v n="$ok" '{ printf "%.1f", (($5 - $1) + ($6 - $2) + ($7 - $3) + ($8 - $4)) / n }')
+        fi
+
+        log_info "basket=$basket concurrency=$concurrency 成功=$ok 失败=$failed tps=$tps p50=${p50}ms p99=${p99}ms p999=${p999}ms sql/单=$sql"
+        echo "basket=$basket concurrency=$concurrency tps=$tps p50=$p50 p99=$p99 p999=$p999 sql=$sql" >> "$RESULTS"
+    done
+done
+
+# ==========================================
+# 3. 与基线比较
+# ==========================================
+log_info ""
+log_info "=================================="
+log_info "与基线比较（容忍度 ${TOLERANCE}%）"
+log_info "=================================="
+
+if [ "$UPDATE_BASELINE" = "1" ]; then
+    cp "$RESULTS" "$BASELINE_FILE"
+    log_success "基线已更新: $BASELINE_FILE"
+    exit 0
+fi
+
+if [ ! -f "$BASELINE_FILE" ]; then
+    log_error "基线文件 $BASELINE_FILE 不存在，无法判断是否退化；请先在修改前的代码上用 UPDATE_BASELINE=1 生成"
+    exit 1
+fi
+
+REGRESSED=0
+while read -r line; do
+    key=$(echo "$line" | cut -d' ' -f1-2)
+    base=$(grep "^$key " "$BASELINE_FILE" || true)
+    if [ -z "$base" ]; then
+        continue
+    fi
+    verdict=$(awk -v tps="$(field "$line" tps)" -v btps="$(field "$base" tps)" \
+                  -v p99="$(field "$line" p99)" -v bp99="$(field "$base" p99)" \
+                  -v sql="$(field "$line" sql)" -v bsql="$(field "$base" sql)" -v tol="$TOLERANCE" 'BEGIN {
+        r = ""
+        if (tps < btps * (1 - tol / 100)) r = r " tps " btps "->" tps
+        if (p99 > bp99 * (1 + tol / 100)) r = r " p99 " bp99 "->" p99
+        if (sql != "-" && bsql != "-" && sql > bsql + 0.5) r = r " sql/单 " bsql "->" sql
+        print r
+    }')
+    if [ -n "$verdict" ]; then
+        log_error "✗ $key 退化:$verdict"
+        REGRESSED=1
+    else
+        log_success "✓ $key"
+    fi
+done < "$RESULTS"
+
+if [ "$REGRESSED" = "1" ]; then
+    exit 1
+fi
+log_success "未发现性能退化"
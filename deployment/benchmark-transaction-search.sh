@@ -0,0 +1,172 @@
+#!/bin/bash
+
+# ==========================================
+# MyPetShop3.0 财务记录搜索压测脚本
+# ==========================================
+# 用途：在独立的压测库中生成数百万条财务记录，比较描述搜索 LIKE '%x%' 与 ngram 全文索引
+#       MATCH ... AGAINST 的耗时（统计总数、取第一页）
+# 使用：先启动 MySQL（docker-compose up -d mysql），再执行
+#       ./benchmark-transaction-search.sh                # 默认 300 万行
+#       ROWS=5000000 ./benchmark-transaction-search.sh
+#       KEEP_DATA=1 ./benchmark-transaction-search.sh    # 保留压测库，下次直接复用
+# 注意：使用独立数据库 $BENCH_DB，不影响业务数据；生成数据和建索引需要数分钟
+# ==========================================
+
+set -e
+
+# 颜色输出
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+log_info() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+log_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+log_warning() {
+    echo -e "${YELLOW}[WARNING]${NC} $1"
+}
+
+log_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+# 获取脚本所在目录
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+cd "$SCRIPT_DIR"
+
+if [ -f .env ]; then
+    source .env
+fi
+
+# 配置
+ROWS=${ROWS:-3000000}                              # 生成的财务记录数（最多 1000 万）
+REPEAT=${REPEAT:-3}                                # 每条查询执行次数（取平均）
+TERMS=${TERMS:-"皇家狗粮 张三 冻干 猫砂 150.00x2 伟嘉"}  # 搜索词列表
+BENCH_DB=${BENCH_DB:-pet_shop_bench}
+MYSQL_CONTAINER=${MYSQL_CONTAINER:-petshop-mysql}
+MYSQL_ROOT_PASSWORD=${MYSQL_ROOT_PASSWORD:-root}
+
+mysql_exec() {
+    docker exec -i "$MYSQL_CONTAINER" mysql -uroot -p"$MYSQL_ROOT_PASSWORD" \
+        --silent --skip-column-names --default-character-set=utf8mb4 "$@" 2>/dev/null
+}
+
+if ! mysql_exec -e "SELECT 1" > /dev/null; then
+    log_error "无法连接 MySQL 容器 $MYSQL_CONTAINER"
+    exit 1
+fi
+
+# ==========================================
+# 1. 生成压测数据
+# ==========================================
+log_info "=================================="
+log_info "准备压测数据: $BENCH_DB.transactions ($ROWS 行)"
+log_info "=================================="
+
+existing=$(mysql_exec -e "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = '$BENCH_DB' AND table_name = 'transactions'")
+if [ "$existing" = "1" ] && [ "$(mysql_exec -e "SELECT COUNT(*) FROM $BENCH_DB.transactions")" = "$ROWS" ]; then
+    log_info "复用已有压测数据"
+else
+    start=$(date +%s)
+    # 描述格式与开单自动记账一致：客户-商品 单价x数量 = 金额
+    mysql_exec <<EOF
+CREATE DATABASE IF NOT EXISTS \`$BENCH_DB\` DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE \`$BENCH_DB\`;
+DROP TABLE IF EXISTS transactions;
+CREATE TABLE transactions (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+  type ENUM('income', 'expense') NOT NULL,
+  amount BIGINT NOT NULL,
+  description VARCHAR(500) NOT NULL,
+  date DATETIME NOT NULL,
+  PRIMARY KEY (id),
+  KEY idx_date (date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+DROP TABLE IF EXISTS digits;
+CREATE TABLE digits (d INT PRIMARY KEY);
+INSERT INTO digits VALUES (0),(1),(2),(3),(4),(5),(6),(7),(8),(9);
+
+INSERT INTO transactions (type, amount, description, date)
+SELECT /*+ NO_MERGE(seq) */ 'income', price * qty,
+       CONCAT(ELT(1 + FLOOR(RAND() * 12), '张三', '李四', '王五', '赵六', '钱七', '孙八', '周九', '吴十',
+                  '郑小明', '陈大文', '林静', '散客'),
+              '-',
+              ELT(1 + FLOOR(RAND() * 12), '皇家狗粮', '皇家猫粮', '伟嘉成猫粮', '渴望狗粮', '冻干鸡肉粒', '豆腐猫砂',
+                  '膨润土猫砂', '宠物沐浴露', '驱虫药', '磨牙棒', '牵引绳', '宠物窝'),
+              ' ', CAST(price / 100 AS DECIMAL(10, 2)), 'x', qty, ' = ', CAST(price * qty / 100 AS DECIMAL(12, 2))),
+       NOW() - INTERVAL n MINUTE
+FROM (
+    SELECT a.d + b.d * 10 + c.d * 100 + e.d * 1000 + f.d * 10000 + g.d * 100000 + h.d * 1000000 AS n,
+           1000 * (1 + FLOOR(RAND() * 300)) AS price,
+           1 + FLOOR(RAND() * 5) AS qty
+    FROM digits a, digits b, digits c, digits e, digits f, digits g, digits h
+) seq
+WHERE n < $ROWS;
+DROP TABLE digits;
+EOF
+    log_success "生成数据完成，耗时 $(($(date +%s) - start)) 秒"
+
+    start=$(date +%s)
+    mysql_exec -e "SET SESSION innodb_ft_enable_stopword = OFF;
+        ALTER TABLE \`$BENCH_DB\`.transactions ADD FULLTEXT KEY ft_description (description) WITH PARSER ngram"
+    log_success "建立全文索引完成，耗时 $(($(date +%s) - start)) 秒"
+fi
+
+size=$(mysql_exec -e "SELECT CONCAT(ROUND(data_length / 1048576), 'MB 数据, ', ROUND(index_length / 1048576), 'MB 索引')
+    FROM information_schema.tables WHERE table_schema = '$BENCH_DB' AND table_name = 'transactions'")
+log_info "表大小: $size"
+
+# ==========================================
+# 2. 比较查询耗时
+# ==========================================
+
+# 在同一会话中执行 REPEAT 次，输出平均耗时（毫秒）
+time_query() {
+    local sql=$1
+    local body=""
+    for i in $(seq 1 "$REPEAT"); do
+        body="$body SET @t = NOW(6); $sql; SET @total = @total + TIMESTAMPDIFF(MICROSECOND, @t, NOW(6));"
+    done
+    mysql_exec "$BENCH_DB" -e "SET @total = 0; $body SELECT ROUND(@total / $REPEAT / 1000, 1);"
+}
+
+log_info ""
+log_info "=================================="
+log_info "查询耗时（毫秒，$REPEAT 次平均）"
+log_info "=================================="
+printf "%-12s %10s %12s %12s %12s %12s\n" "搜索词" "命中行数" "LIKE总数" "全文总数" "LIKE首页" "全文首页"
+
+for term in $TERMS; do
+    like="description LIKE CONCAT('%', '$term', '%')"
+    match="MATCH(description) AGAINST('\"$term\"' IN BOOLEAN MODE)"
+    page="SELECT COUNT(*) INTO @c FROM (SELECT id FROM transactions WHERE {cond} ORDER BY date DESC, id DESC LIMIT 20) t"
+
+    hits=$(mysql_exec "$BENCH_DB" -e "SELECT COUNT(*) FROM transactions WHERE $like")
+    fulltext_hits=$(mysql_exec "$BENCH_DB" -e "SELECT COUNT(*) FROM transactions WHERE $match")
+    if [ "$hits" != "$fulltext_hits" ]; then
+        log_warning "$term: LIKE 命中 $hits 行，全文索引命中 $fulltext_hits 行"
+    fi
+
+    like_count=$(time_query "SELECT COUNT(*) INTO @c FROM transactions WHERE $like")
+    match_count=$(time_query "SELECT COUNT(*) INTO @c FROM transactions WHERE $match")
+    like_page=$(time_query "${page/\{cond\}/$like}")
+    match_page=$(time_query "${page/\{cond\}/$match}")
+    printf "%-12s %10s %12s %12s %12s %12s\n" "$term" "$hits" "$like_count" "$match_count" "$like_page" "$match_page"
+done
+
+log_info ""
+log_info "说明：命中行数多的词 LIKE 取首页可以按 idx_date 顺序扫描并很快凑满一页，"
+log_info "      命中少的词 LIKE 需要扫描全表，全文索引的优势主要体现在这类查询和统计总数上"
+
+if [ "$KEEP_DATA" != "1" ]; then
+    mysql_exec -e "DROP DATABASE IF EXISTS \`$BENCH_DB\`"
+    log_info "已删除压测库 $BENCH_DB（KEEP_DATA=1 可保留）"
+fi